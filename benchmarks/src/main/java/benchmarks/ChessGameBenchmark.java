@@ -0,0 +1,118 @@
+package benchmarks;
+
+import chess.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move generation, move making and game-end detection on {@link ChessGame} and
+ * {@link ChessBoard}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChessGameBenchmark {
+    private ChessGame start;
+    private ChessGame kiwipete;
+    private ChessGame foolsMate;
+    private ChessGame fresh;
+
+    @Setup(Level.Trial)
+    public void setUpPositions() {
+        start = new ChessGame();
+        kiwipete = ChessGame.fromFen(Positions.KIWIPETE);
+        foolsMate = ChessGame.fromFen(Positions.FOOLS_MATE);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpFreshGame() {
+        fresh = new ChessGame();
+    }
+
+    /**
+     * Plays the seven moves of {@link Positions#OPENING}, each validated and followed by the
+     * check/checkmate/stalemate update.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 20, batchSize = 1000)
+    @Measurement(iterations = 10, batchSize = 1000)
+    public ChessGame makeMoveOpening(ColdCache cold) throws InvalidMoveException {
+        return playOpening();
+    }
+
+    @Benchmark
+    public ChessGame makeMoveOpeningCached() throws InvalidMoveException {
+        return playOpening();
+    }
+
+    @Benchmark
+    public Collection<ChessMove> boardValidMovesStart() {
+        return start.getBoard().validMoves(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public Collection<ChessMove> boardValidMovesKiwipete() {
+        return kiwipete.getBoard().validMoves(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 20, batchSize = 1000)
+    @Measurement(iterations = 10, batchSize = 1000)
+    public Collection<ChessMove> gameValidMovesKiwipete(ColdCache cold) {
+        return kiwipete.validMoves(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public Collection<ChessMove> gameValidMovesKiwipeteCached() {
+        return kiwipete.validMoves(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 20, batchSize = 1000)
+    @Measurement(iterations = 10, batchSize = 1000)
+    public boolean isInCheckmateKiwipete(ColdCache cold) {
+        return kiwipete.isInCheckmate(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public boolean isInCheckmateKiwipeteCached() {
+        return kiwipete.isInCheckmate(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 20, batchSize = 1000)
+    @Measurement(iterations = 10, batchSize = 1000)
+    public boolean isInCheckmateFoolsMate(ColdCache cold) {
+        return foolsMate.isInCheckmate(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public boolean isInCheckmateFoolsMateCached() {
+        return foolsMate.isInCheckmate(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public long perft3Start() {
+        return Perft.perft(start, 3);
+    }
+
+    private ChessGame playOpening() throws InvalidMoveException {
+        for (var move : Positions.OPENING) {
+            fresh.makeMove(move);
+        }
+        return fresh;
+    }
+}
@@ -0,0 +1,21 @@
+package benchmarks;
+
+import chess.LegalMoveCache;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Empties {@link LegalMoveCache#SHARED} before each call of the benchmarks taking it, so they
+ * generate their moves instead of finding those of the previous call.
+ * <p>
+ * Those benchmarks run in {@link Mode#SingleShotTime} over batches of 1000 calls, which times
+ * each call on its own and leaves the clearing out; their scores in milliseconds per batch read
+ * as microseconds per call. Under {@link Mode#AverageTime}, setting up every invocation of a
+ * body this short would skew the averages.
+ */
+@State(Scope.Thread)
+public class ColdCache {
+    @Setup(Level.Invocation)
+    public void clearCache() {
+        LegalMoveCache.SHARED.clear();
+    }
+}
@@ -0,0 +1,50 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.engine.Engine;
+import chess.engine.SearchLimits;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Engine search speed by thread count. The nodes counter reports positions searched per second
+ * across all threads; divide by the thread count for the speed of each.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EngineBenchmark {
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private Engine engine;
+    private ChessGame kiwipete;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Nodes {
+        public long nodes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new Engine(threads);
+        kiwipete = ChessGame.fromFen(Positions.KIWIPETE);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        engine.clear();
+    }
+
+    @Benchmark
+    public long searchKiwipete100ms(Nodes counter) {
+        var result = engine.search(kiwipete, SearchLimits.millis(100));
+        counter.nodes += result.nodes();
+        return result.nodes();
+    }
+}
@@ -0,0 +1,85 @@
+package benchmarks;
+
+import chess.ChessGame;
+import dataaccess.*;
+import models.GameData;
+import org.openjdk.jmh.annotations.*;
+import requests.CreateGameRequest;
+import requests.JoinGameRequest;
+import requests.RegisterRequest;
+import response.WebSocketResponse;
+import service.GameService;
+import service.UserService;
+import websocket.commands.UserGameCommand;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GameService#makeMove} end to end against the in-memory DAOs: authentication, game
+ * lookup, move validation, game state update and storing the game.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameServiceBenchmark {
+    private GameService gameService;
+    private GameDAO gameDAO;
+    private GameData startingGame;
+    private UserGameCommand[] commands;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        gameDAO = new MemoryGameDAO();
+        AuthDAO authDAO = new MemoryAuthDAO();
+        var userService = new UserService(new MemoryUserDAO(), authDAO);
+        gameService = new GameService(gameDAO, authDAO);
+
+        var white = userService.register(new RegisterRequest("white", "password", "w@w.com"));
+        var black = userService.register(new RegisterRequest("black", "password", "b@b.com"));
+        int gameID = gameService.createGame(new CreateGameRequest("bench"), white.authToken())
+                .gameID();
+        gameService.joinGame(new JoinGameRequest("WHITE", gameID), white.authToken());
+        gameService.joinGame(new JoinGameRequest("BLACK", gameID), black.authToken());
+        startingGame = gameDAO.getGame(gameID);
+
+        commands = new UserGameCommand[Positions.OPENING.length];
+        for (int i = 0; i < commands.length; i++) {
+            var authToken = i % 2 == 0 ? white.authToken() : black.authToken();
+            commands[i] = new UserGameCommand(UserGameCommand.CommandType.MAKE_MOVE, authToken,
+                    gameID, Positions.OPENING[i]);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void resetGame() throws DataAccessException {
+        gameDAO.updateGame(startingGame.replaceGame(new ChessGame()));
+    }
+
+    /**
+     * Plays the seven moves of {@link Positions#OPENING} through the service.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 20, batchSize = 1000)
+    @Measurement(iterations = 10, batchSize = 1000)
+    public WebSocketResponse makeMoveOpening(ColdCache cold) throws Exception {
+        return playOpening();
+    }
+
+    @Benchmark
+    public WebSocketResponse makeMoveOpeningCached() throws Exception {
+        return playOpening();
+    }
+
+    private WebSocketResponse playOpening() throws Exception {
+        WebSocketResponse response = null;
+        for (var command : commands) {
+            response = gameService.makeMove(command);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,62 @@
+package benchmarks;
+
+import chess.InvalidMoveException;
+import chess.pgn.PgnAnalysis;
+import chess.pgn.PgnStatistics;
+import chess.pgn.PgnWriter;
+import models.GameData;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analysis of a PGN file of {@link Positions#randomGames random games} by worker count, timed
+ * per game. With work to spare, the time per game should fall in proportion to the workers up
+ * to the number of cores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PgnAnalysisBenchmark {
+    private static final int GAMES = 4000;
+    private static final int PLIES = 80;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private Path file;
+    private ForkJoinPool pool;
+    private PgnAnalysis analysis;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InvalidMoveException {
+        var text = new StringBuilder();
+        var games = Positions.randomGames(GAMES, PLIES);
+        for (int i = 0; i < GAMES; i++) {
+            PgnWriter.write(new GameData(i, "white", "black", "game " + i, games.get(i)), text);
+        }
+        file = Files.createTempFile("games", ".pgn");
+        Files.writeString(file, text);
+        pool = new ForkJoinPool(threads);
+        analysis = new PgnAnalysis(pool, 1 << 16);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public PgnStatistics analyzeFile() throws IOException {
+        return analysis.analyze(file);
+    }
+}
@@ -0,0 +1,61 @@
+package benchmarks;
+
+import chess.InvalidMoveException;
+import chess.pgn.PgnException;
+import chess.pgn.PgnReader;
+import chess.pgn.PgnWriter;
+import models.GameData;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing PGN. The archive is made of {@link Positions#randomGames random games}, so
+ * that few positions repeat between games, as in a real archive; the time to read it is reported
+ * per game.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PgnBenchmark {
+    private static final int GAMES = 1000;
+    private static final int PLIES = 80;
+
+    private String archive;
+    private GameData stored;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InvalidMoveException {
+        var text = new StringBuilder();
+        var games = Positions.randomGames(GAMES, PLIES);
+        for (int i = 0; i < GAMES; i++) {
+            stored = new GameData(i, "white", "black", "game " + i, games.get(i));
+            PgnWriter.write(stored, text);
+        }
+        archive = text.toString();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public int readArchive() throws IOException, PgnException {
+        int plies = 0;
+        try (var reader = new PgnReader(new StringReader(archive))) {
+            for (var game = reader.next(); game != null; game = reader.next()) {
+                plies += game.game().getBoard().getMoveHistory().size();
+            }
+        }
+        return plies;
+    }
+
+    @Benchmark
+    public StringBuilder writeGame() throws IOException {
+        var out = new StringBuilder();
+        PgnWriter.write(stored, out);
+        return out;
+    }
+}
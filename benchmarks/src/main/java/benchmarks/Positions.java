@@ -0,0 +1,76 @@
+package benchmarks;
+
+import chess.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The positions the benchmarks run against, in FEN, and games set up in them.
+ */
+final class Positions {
+    /**
+     * Kiwipete, a busy middlegame with every kind of special move available.
+     */
+    static final String KIWIPETE =
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    /**
+     * The position after fool's mate (1. f3 e5 2. g4 Qh4#), white to move and mated.
+     */
+    static final String FOOLS_MATE =
+            "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3";
+
+    /**
+     * A short opening line, as start and end positions.
+     */
+    static final ChessMove[] OPENING = {move(2, 5, 4, 5), move(7, 5, 5, 5), move(1, 7, 3, 6),
+            move(8, 2, 6, 3), move(1, 6, 4, 3), move(8, 6, 5, 3), move(1, 5, 1, 7)};
+
+    private Positions() {
+    }
+
+    /**
+     * @return a new game after the moves of {@link #OPENING}
+     */
+    static ChessGame afterOpening() {
+        var game = new ChessGame();
+        try {
+            for (var move : OPENING) {
+                game.makeMove(move);
+            }
+        } catch (InvalidMoveException e) {
+            throw new IllegalStateException(e);
+        }
+        return game;
+    }
+
+    /**
+     * Plays games of random legal moves, the same ones on every call
+     *
+     * @param count how many games
+     * @param plies how many moves each game has, unless it ends sooner
+     * @return the games
+     */
+    static List<ChessGame> randomGames(int count, int plies) throws InvalidMoveException {
+        var random = new SplittableRandom(42);
+        var games = new ArrayList<ChessGame>();
+        for (int i = 0; i < count; i++) {
+            var game = new ChessGame();
+            for (int ply = 0; ply < plies && !game.isOver(); ply++) {
+                var moves = new ArrayList<>(game.validMoves(game.getTeamTurn()));
+                moves.sort(Comparator.comparing(ChessMove::toString));
+                game.makeMove(moves.get(random.nextInt(moves.size())));
+            }
+            games.add(game);
+        }
+        return games;
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(ChessPosition.of(startRow, startCol),
+                ChessPosition.of(endRow, endCol), null);
+    }
+}
@@ -0,0 +1,52 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessGameCodec;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gson round trips of a {@link ChessGame}, as done for every LOAD_GAME message, against the
+ * {@link ChessGameCodec binary form} the database stores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+    private final Gson gson = new Gson();
+    private ChessGame game;
+    private String json;
+    private byte[] binary;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = Positions.afterOpening();
+        json = gson.toJson(game);
+        binary = ChessGameCodec.encode(game);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return gson.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame fromJson() {
+        return gson.fromJson(json, ChessGame.class);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return ChessGameCodec.encode(game);
+    }
+
+    @Benchmark
+    public ChessGame decode() {
+        return ChessGameCodec.decode(binary);
+    }
+}
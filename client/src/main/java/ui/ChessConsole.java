@@ -331,7 +331,7 @@ public class ChessConsole implements ChessUI {
 
     private static class Convert {
         static ChessPosition toChessPosition(int x, int y) {
-            return new ChessPosition(y + 1, x + 1);
+            return ChessPosition.of(y + 1, x + 1);
         }
     }
 }
@@ -1,6 +1,7 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessGameCodec;
 import com.google.gson.Gson;
 import models.GameData;
 
@@ -12,7 +13,14 @@ import java.util.List;
 
 import static dataaccess.ExecuteDatabaseInstruction.executeUpdate;
 
+/**
+ * Stores games in the {@code game} table. Each game is written with {@link ChessGameCodec} to
+ * the {@code gameBinary} column. Rows saved before that column existed keep their game as JSON
+ * in the {@code game} column and are still read from it, until the game is next updated.
+ */
 public class DatabaseGameDAO implements GameDAO {
+    private static final String COLUMNS =
+            "gameID, whiteUsername, blackUsername, gameName, game, gameBinary";
 
     public DatabaseGameDAO() throws DataAccessException {
         configureDatabase();
@@ -27,16 +35,32 @@ public class DatabaseGameDAO implements GameDAO {
                   `blackUsername` varchar(256) DEFAULT NULL,
                   `gameName` varchar(256) NOT NULL,
                   `game` longtext DEFAULT NULL,
+                  `gameBinary` mediumblob DEFAULT NULL,
                   PRIMARY KEY (`gameID`)
                 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci
                 """;
         executeUpdate(createStatement);
+        if (!hasBinaryColumn()) {
+            executeUpdate("ALTER TABLE game ADD COLUMN `gameBinary` mediumblob DEFAULT NULL");
+        }
+    }
+
+    /**
+     * @return False for a table made before games were stored in binary
+     */
+    private boolean hasBinaryColumn() throws DataAccessException {
+        try (Connection connection = DatabaseManager.getConnection();
+             var columns = connection.getMetaData().getColumns(connection.getCatalog(), null,
+                     "game", "gameBinary")) {
+            return columns.next();
+        } catch (SQLException e) {
+            throw new DataAccessException("Database Error: ", e);
+        }
     }
 
     @Override
     public GameData getGame(int gameID) throws DataAccessException {
-        var statement = "SELECT gameID, whiteUsername, blackUsername, gameName, game FROM game " +
-                        "WHERE " + "gameID=?";
+        var statement = "SELECT " + COLUMNS + " FROM game WHERE gameID=?";
         try (Connection connection = DatabaseManager.getConnection()) {
             try (var preparedStatement = connection.prepareStatement(statement)) {
                 preparedStatement.setInt(1, gameID);
@@ -55,19 +79,26 @@ public class DatabaseGameDAO implements GameDAO {
     private GameData parseGameData(ResultSet resultSet) throws SQLException {
         return new GameData(resultSet.getInt("gameID"), resultSet.getString("whiteUsername"),
                 resultSet.getString("blackUsername"), resultSet.getString("gameName"),
-                readGame(resultSet.getString("game")));
+                readGame(resultSet.getBytes("gameBinary"), resultSet.getString("game")));
+    }
+
+    private ChessGame readGame(byte[] binary, String json) {
+        if (binary != null) {
+            return ChessGameCodec.decode(binary);
+        }
+        return new Gson().fromJson(json, ChessGame.class);
     }
 
-    private ChessGame readGame(String game) {
-        return new Gson().fromJson(game, ChessGame.class);
+    private static byte[] writeGame(ChessGame game) {
+        return game == null ? null : ChessGameCodec.encode(game);
     }
 
     @Override
     public int insertGame(GameData gameData) throws DataAccessException {
-        var statement = "INSERT INTO game (gameID, whiteUsername, blackUsername, gameName, game) " +
-                        "VALUES (?, ?, ?, ?, ?)";
+        var statement = "INSERT INTO game (gameID, whiteUsername, blackUsername, gameName, " +
+                        "gameBinary) VALUES (?, ?, ?, ?, ?)";
         return executeUpdate(statement, gameData.gameID(), gameData.whiteUsername(),
-                gameData.blackUsername(), gameData.gameName(), gameData.game());
+                gameData.blackUsername(), gameData.gameName(), writeGame(gameData.game()));
     }
 
     @Override
@@ -90,15 +121,15 @@ public class DatabaseGameDAO implements GameDAO {
         if (getGame(updatedGame.gameID()) == null) {
             throw new DataAccessException("Auth Token is bad!");
         }
-        var statement = "UPDATE game SET whiteUsername=?, blackUsername=?, gameName=?, game=? " +
-                        "WHERE gameID=?";
+        var statement = "UPDATE game SET whiteUsername=?, blackUsername=?, gameName=?, " +
+                        "game=NULL, gameBinary=? WHERE gameID=?";
         executeUpdate(statement, updatedGame.whiteUsername(), updatedGame.blackUsername(),
-                updatedGame.gameName(), updatedGame.game(), updatedGame.gameID());
+                updatedGame.gameName(), writeGame(updatedGame.game()), updatedGame.gameID());
     }
 
     @Override
     public List<GameData> getAll() throws DataAccessException {
-        var statement = "SELECT gameID, whiteUsername, blackUsername, gameName, game FROM game";
+        var statement = "SELECT " + COLUMNS + " FROM game";
         List<GameData> gameList = new ArrayList<>();
         try (Connection connection = DatabaseManager.getConnection()) {
             try (var preparedStatement = connection.prepareStatement(statement)) {
@@ -18,6 +18,7 @@ public class ExecuteDatabaseInstruction {
                 switch (param) {
                     case String p -> preparedStatement.setString(i + 1, p);
                     case Integer p -> preparedStatement.setInt(i + 1, p);
+                    case byte[] p -> preparedStatement.setBytes(i + 1, p);
                     case Object p -> preparedStatement.setString(i + 1, new Gson().toJson(p));
                     case null -> preparedStatement.setNull(i + 1, NULL);
                 }
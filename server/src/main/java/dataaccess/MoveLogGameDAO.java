@@ -0,0 +1,315 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessGameCodec;
+import chess.InvalidMoveException;
+import chess.Move;
+import models.GameData;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static dataaccess.ExecuteDatabaseInstruction.executeUpdate;
+
+/**
+ * Stores games as a log of their moves, so that a move costs one small insert however long the
+ * game has run, where {@link DatabaseGameDAO} rewrites the whole game.
+ * <p>
+ * The {@code game_log} table holds each game's players and name, a {@link ChessGameCodec}
+ * snapshot of the game, the ply the snapshot was taken at, and the ply the game is at. Each move
+ * after that is a row of {@code game_move}, keyed by game and ply. A game is read back by
+ * playing its moves since the snapshot onto it. An update that only adds moves appends them,
+ * and takes a new snapshot once the game is {@link #DEFAULT_SNAPSHOT_PLIES} or so plies past
+ * the last; any other change to the game, such as a resignation, is written as a snapshot.
+ * <p>
+ * The tables are separate from {@code game}, so games saved by the other DAO are not seen here.
+ */
+public class MoveLogGameDAO implements GameDAO {
+    public static final int DEFAULT_SNAPSHOT_PLIES = 32;
+
+    private static final String COLUMNS =
+            "gameID, whiteUsername, blackUsername, gameName, snapshot, snapshotPly, ply";
+
+    private final int snapshotPlies;
+
+    public MoveLogGameDAO() throws DataAccessException {
+        this(DEFAULT_SNAPSHOT_PLIES);
+    }
+
+    /**
+     * @param snapshotPlies how many moves to log after a snapshot before taking the next
+     */
+    public MoveLogGameDAO(int snapshotPlies) throws DataAccessException {
+        if (snapshotPlies < 1) {
+            throw new IllegalArgumentException("Snapshots must be at least one ply apart");
+        }
+        this.snapshotPlies = snapshotPlies;
+        configureDatabase();
+    }
+
+    private void configureDatabase() throws DataAccessException {
+        DatabaseManager.createDatabase();
+        executeUpdate("""
+                CREATE TABLE IF NOT EXISTS game_log (
+                  `gameID` int NOT NULL AUTO_INCREMENT,
+                  `whiteUsername` varchar(256) DEFAULT NULL,
+                  `blackUsername` varchar(256) DEFAULT NULL,
+                  `gameName` varchar(256) NOT NULL,
+                  `snapshot` mediumblob DEFAULT NULL,
+                  `snapshotPly` int NOT NULL DEFAULT 0,
+                  `ply` int NOT NULL DEFAULT 0,
+                  PRIMARY KEY (`gameID`)
+                ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci
+                """);
+        executeUpdate("""
+                CREATE TABLE IF NOT EXISTS game_move (
+                  `gameID` int NOT NULL,
+                  `ply` int NOT NULL,
+                  `move` smallint NOT NULL,
+                  PRIMARY KEY (`gameID`, `ply`)
+                ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci
+                """);
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        return getGame(gameID, () -> {
+        });
+    }
+
+    /**
+     * @param betweenReads run after the snapshot is read and before the moves since it are, so
+     *                     tests can change the game in between
+     */
+    GameData getGame(int gameID, Runnable betweenReads) throws DataAccessException {
+        try (Connection connection = openReadTransaction()) {
+            GameData gameData;
+            Replay replay;
+            try (var preparedStatement = connection.prepareStatement(
+                    "SELECT " + COLUMNS + " FROM game_log WHERE gameID=?")) {
+                preparedStatement.setInt(1, gameID);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        return null;
+                    }
+                    gameData = parseGameData(resultSet);
+                    replay = new Replay(gameData.game(), resultSet.getInt("snapshotPly"),
+                            resultSet.getInt("ply"));
+                }
+            }
+            betweenReads.run();
+            if (gameData.game() != null && replay.ply() > replay.snapshotPly()) {
+                try (var preparedStatement = connection.prepareStatement(
+                        "SELECT gameID, ply, move FROM game_move WHERE gameID=? AND ply > ? " +
+                        "AND ply <= ? ORDER BY ply")) {
+                    preparedStatement.setInt(1, gameID);
+                    preparedStatement.setInt(2, replay.snapshotPly());
+                    preparedStatement.setInt(3, replay.ply());
+                    try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                        replayMoves(resultSet, Map.of(gameID, replay));
+                    }
+                }
+            }
+            connection.commit();
+            return gameData;
+        } catch (SQLException e) {
+            throw new DataAccessException("Database Error: ", e);
+        }
+    }
+
+    /**
+     * Opens a connection for reading a game's snapshot and then its moves. Both reads see the
+     * tables as they were at the first, so a snapshot taken meanwhile can't leave the moves read
+     * out of step with the snapshot they are played onto.
+     */
+    private static Connection openReadTransaction() throws DataAccessException, SQLException {
+        var connection = DatabaseManager.getConnection();
+        try {
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            connection.setAutoCommit(false);
+            return connection;
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    private GameData parseGameData(ResultSet resultSet) throws SQLException {
+        var snapshot = resultSet.getBytes("snapshot");
+        return new GameData(resultSet.getInt("gameID"), resultSet.getString("whiteUsername"),
+                resultSet.getString("blackUsername"), resultSet.getString("gameName"),
+                snapshot == null ? null : ChessGameCodec.decode(snapshot));
+    }
+
+    /**
+     * A game read from its snapshot, with the ply the snapshot was taken at and the ply the game
+     * had reached when read
+     */
+    private record Replay(ChessGame game, int snapshotPly, int ply) {
+    }
+
+    /**
+     * Plays each move in a result set of game IDs, plies and moves, in order of ply, onto its
+     * game, skipping those outside the plies its replay covers
+     */
+    private void replayMoves(ResultSet moves, Map<Integer, Replay> replays)
+            throws SQLException, DataAccessException {
+        while (moves.next()) {
+            int gameID = moves.getInt("gameID");
+            int ply = moves.getInt("ply");
+            var replay = replays.get(gameID);
+            if (replay == null || replay.game() == null || ply <= replay.snapshotPly() ||
+                ply > replay.ply()) {
+                continue;
+            }
+            try {
+                replay.game().makeMove(Move.toChessMove(moves.getInt("move") & Move.MASK));
+            } catch (InvalidMoveException e) {
+                throw new DataAccessException("Game " + gameID + " has an illegal move logged", e);
+            }
+        }
+    }
+
+    @Override
+    public int insertGame(GameData gameData) throws DataAccessException {
+        var statement = "INSERT INTO game_log (gameID, whiteUsername, blackUsername, gameName, " +
+                        "snapshot, snapshotPly, ply) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        int ply = plyOf(gameData.game());
+        return executeUpdate(statement, gameData.gameID(), gameData.whiteUsername(),
+                gameData.blackUsername(), gameData.gameName(), snapshotOf(gameData.game()), ply,
+                ply);
+    }
+
+    @Override
+    public void deleteGame(int gameID) throws DataAccessException {
+        if (getGame(gameID) == null) {
+            throw new DataAccessException("Auth Token is bad!");
+        }
+        executeUpdate("DELETE FROM game_move WHERE gameID=?", gameID);
+        executeUpdate("DELETE FROM game_log WHERE gameID=?", gameID);
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        executeUpdate("TRUNCATE game_move");
+        executeUpdate("TRUNCATE game_log");
+    }
+
+    @Override
+    public void updateGame(GameData updatedGame) throws DataAccessException {
+        int gameID = updatedGame.gameID();
+        var game = updatedGame.game();
+        try (Connection connection = DatabaseManager.getConnection()) {
+            connection.setAutoCommit(false);
+            int snapshotPly;
+            int ply;
+            boolean hasGame;
+            try (var preparedStatement = connection.prepareStatement(
+                    "SELECT snapshot IS NOT NULL, snapshotPly, ply FROM game_log " +
+                    "WHERE gameID=? FOR UPDATE")) {
+                preparedStatement.setInt(1, gameID);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        throw new DataAccessException("Auth Token is bad!");
+                    }
+                    hasGame = resultSet.getBoolean(1);
+                    snapshotPly = resultSet.getInt(2);
+                    ply = resultSet.getInt(3);
+                }
+            }
+
+            int newPly = plyOf(game);
+            boolean appendOnly = hasGame && game != null && !game.isOver() && newPly >= ply &&
+                                 newPly - snapshotPly < snapshotPlies;
+            if (appendOnly) {
+                var history = game.getBoard().getMoveHistory();
+                try (var preparedStatement = connection.prepareStatement(
+                        "INSERT INTO game_move (gameID, ply, move) VALUES (?, ?, ?)")) {
+                    for (int i = ply; i < newPly; i++) {
+                        preparedStatement.setInt(1, gameID);
+                        preparedStatement.setInt(2, i + 1);
+                        preparedStatement.setShort(3, (short) Move.fromChessMove(history.get(i)));
+                        preparedStatement.addBatch();
+                    }
+                    preparedStatement.executeBatch();
+                }
+                try (var preparedStatement = connection.prepareStatement(
+                        "UPDATE game_log SET whiteUsername=?, blackUsername=?, gameName=?, ply=? " +
+                        "WHERE gameID=?")) {
+                    preparedStatement.setString(1, updatedGame.whiteUsername());
+                    preparedStatement.setString(2, updatedGame.blackUsername());
+                    preparedStatement.setString(3, updatedGame.gameName());
+                    preparedStatement.setInt(4, newPly);
+                    preparedStatement.setInt(5, gameID);
+                    preparedStatement.executeUpdate();
+                }
+            } else {
+                try (var preparedStatement = connection.prepareStatement(
+                        "DELETE FROM game_move WHERE gameID=? AND ply > ?")) {
+                    preparedStatement.setInt(1, gameID);
+                    preparedStatement.setInt(2, newPly);
+                    preparedStatement.executeUpdate();
+                }
+                try (var preparedStatement = connection.prepareStatement(
+                        "UPDATE game_log SET whiteUsername=?, blackUsername=?, gameName=?, " +
+                        "snapshot=?, snapshotPly=?, ply=? WHERE gameID=?")) {
+                    preparedStatement.setString(1, updatedGame.whiteUsername());
+                    preparedStatement.setString(2, updatedGame.blackUsername());
+                    preparedStatement.setString(3, updatedGame.gameName());
+                    preparedStatement.setBytes(4, snapshotOf(game));
+                    preparedStatement.setInt(5, newPly);
+                    preparedStatement.setInt(6, newPly);
+                    preparedStatement.setInt(7, gameID);
+                    preparedStatement.executeUpdate();
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            throw new DataAccessException("Database Error: ", e);
+        }
+    }
+
+    @Override
+    public List<GameData> getAll() throws DataAccessException {
+        List<GameData> gameList = new ArrayList<>();
+        Map<Integer, Replay> replays = new HashMap<>();
+        try (Connection connection = openReadTransaction()) {
+            try (var preparedStatement = connection.prepareStatement(
+                    "SELECT " + COLUMNS + " FROM game_log")) {
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        var gameData = parseGameData(resultSet);
+                        gameList.add(gameData);
+                        replays.put(gameData.gameID(), new Replay(gameData.game(),
+                                resultSet.getInt("snapshotPly"), resultSet.getInt("ply")));
+                    }
+                }
+            }
+            var statement = "SELECT m.gameID, m.ply, m.move FROM game_move m JOIN game_log g " +
+                            "ON m.gameID = g.gameID WHERE m.ply > g.snapshotPly " +
+                            "ORDER BY m.gameID, m.ply";
+            try (var preparedStatement = connection.prepareStatement(statement)) {
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    replayMoves(resultSet, replays);
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            throw new DataAccessException("Database Error: ", e);
+        }
+        return gameList;
+    }
+
+    private static int plyOf(ChessGame game) {
+        return game == null ? 0 : game.getBoard().getMoveHistory().size();
+    }
+
+    private static byte[] snapshotOf(ChessGame game) {
+        return game == null ? null : ChessGameCodec.encode(game);
+    }
+}
@@ -1,5 +1,6 @@
 package server;
 
+import chess.tablebase.Tablebase;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import dataaccess.*;
@@ -27,6 +28,7 @@ import websocket.commands.UserGameCommand;
 import websocket.messages.ServerMessage;
 
 import java.io.IOException;
+import java.nio.file.Path;
 
 public class Server {
 
@@ -44,12 +46,15 @@ public class Server {
         try {
             authDAO = new DatabaseAuthDAO();
             userDAO = new DatabaseUserDAO();
-            gameDAO = new DatabaseGameDAO();
+            gameDAO = Boolean.getBoolean("chess.games.moveLog") ? new MoveLogGameDAO() :
+                    new DatabaseGameDAO();
         } catch (DataAccessException e) {
             throw new RuntimeException(e);
         }
 
-        gameService = new GameService(gameDAO, authDAO);
+        var tablebaseDirectory = System.getProperty("chess.tablebase.dir");
+        gameService = new GameService(gameDAO, authDAO,
+                tablebaseDirectory == null ? null : new Tablebase(Path.of(tablebaseDirectory)));
         userService = new UserService(userDAO, authDAO);
         adminService = new AdminService(gameDAO, authDAO, userDAO);
 
@@ -179,16 +184,23 @@ public class Server {
                 connections.broadcast(gameID,
                         new ServerMessage(ServerMessage.ServerMessageType.NOTIFICATION, message),
                         session);
+                String opponent = response.opponentUsername();
                 String notification = switch (response.game().getGameState()) {
-                    case CHECK -> "Check!";
-                    case CHECKMATE -> "Checkmate!";
-                    case STALEMATE -> "Stalemate!";
+                    case CHECK -> opponent + " is in Check!";
+                    case CHECKMATE -> opponent + " is in Checkmate!";
+                    case STALEMATE -> opponent + " is in Stalemate!";
+                    case INSUFFICIENT_MATERIAL -> "Draw by insufficient material!";
+                    case THREEFOLD_REPETITION -> "Draw by threefold repetition!";
+                    case FIFTY_MOVE_RULE -> "Draw by the fifty-move rule!";
+                    case ADJUDICATED_WHITE_WIN -> "White wins by adjudication!";
+                    case ADJUDICATED_BLACK_WIN -> "Black wins by adjudication!";
+                    case ADJUDICATED_DRAW -> "Draw by adjudication!";
                     case NONE -> null;
                 };
                 if (notification != null) {
                     connections.broadcast(gameID,
                             new ServerMessage(ServerMessage.ServerMessageType.NOTIFICATION,
-                            response.opponentUsername() + " is in " + notification), null);
+                            notification), null);
                 }
             }
             case LEAVE -> {
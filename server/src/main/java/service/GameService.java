@@ -4,6 +4,8 @@ package service;
 import chess.ChessGame;
 import chess.ChessMove;
 import chess.InvalidMoveException;
+import chess.tablebase.Tablebase;
+import chess.tablebase.TablebaseResult;
 import dataaccess.AuthDAO;
 import dataaccess.DataAccessException;
 import dataaccess.GameDAO;
@@ -20,10 +22,20 @@ import java.util.List;
 public class GameService {
     private final GameDAO gameDAO;
     private final AuthDAO authDAO;
+    private final Tablebase tablebase;
 
     public GameService(GameDAO gameDAO, AuthDAO authDAO) {
+        this(gameDAO, authDAO, null);
+    }
+
+    /**
+     * @param tablebase endgame tables to adjudicate games by once they reach a position in them,
+     *                  or null to have every game played out
+     */
+    public GameService(GameDAO gameDAO, AuthDAO authDAO, Tablebase tablebase) {
         this.gameDAO = gameDAO;
         this.authDAO = authDAO;
+        this.tablebase = tablebase;
     }
 
     public CreateGameResponse createGame(CreateGameRequest createGameRequest, String authToken) throws ResponseException, DataAccessException {
@@ -95,6 +107,7 @@ public class GameService {
         } catch (InvalidMoveException e) {
             throw new ResponseException("Error: illegal move.", 400);
         }
+        adjudicate(game);
 
         gameData = gameData.replaceGame(game);
         gameDAO.updateGame(gameData);
@@ -135,6 +148,29 @@ public class GameService {
         return new WebSocketResponse(gameData, auth);
     }
 
+    /**
+     * Ends a game that is still going if the tablebase knows its result. A win that could not be
+     * forced before the fifty-move rule is adjudicated a draw.
+     */
+    private void adjudicate(ChessGame game) {
+        if (tablebase == null || game.isOver()) {
+            return;
+        }
+        var result = tablebase.probe(game);
+        if (result == null) {
+            return;
+        }
+        var turn = game.getTeamTurn();
+        if (result.wdl() == TablebaseResult.Wdl.DRAW ||
+            game.getBoard().getHalfmoveClock() + result.dtz() > 100) {
+            game.adjudicate(null);
+        } else if (result.wdl() == TablebaseResult.Wdl.WIN) {
+            game.adjudicate(turn);
+        } else {
+            game.adjudicate(ChessGame.otherTeam(turn));
+        }
+    }
+
     private GameData getGameData(Integer gameID) throws ResponseException, DataAccessException {
         GameData game = gameDAO.getGame(gameID);
         if (game == null) {
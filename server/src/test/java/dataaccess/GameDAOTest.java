@@ -1,7 +1,9 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.pgn.San;
 import models.GameData;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
@@ -13,7 +15,7 @@ import static org.junit.jupiter.api.Assertions.*;
 class GameDAOTest {
 
     private static List<Class<? extends GameDAO>> provideClasses() {
-        return List.of(MemoryGameDAO.class, DatabaseGameDAO.class);
+        return List.of(MemoryGameDAO.class, DatabaseGameDAO.class, MoveLogGameDAO.class);
     }
 
     @ParameterizedTest
@@ -83,6 +85,59 @@ class GameDAOTest {
         assertEquals(gameData2, gameDAO.getGame(gameID));
     }
 
+    @ParameterizedTest
+    @MethodSource("provideClasses")
+    void updateGameMoveByMove(Class<? extends GameDAO> gameDAOClass) throws Exception {
+        var gameDAO = gameDAOClass.getDeclaredConstructor().newInstance();
+        gameDAO.clear();
+        var game = new ChessGame();
+        var gameID = gameDAO.insertGame(new GameData(0, "white", "black", "game1", game));
+        var moves = ("e4 e5 Nf3 Nc6 Bb5 a6 Ba4 Nf6 O-O Be7 Re1 b5 Bb3 d6 c3 O-O h3 Nb8 d4 " +
+                     "Nbd7 c4 c6 cxb5 axb5 Nc3 Bb7 Bg5 b4 Nb1 h6 Bh4 c5 dxe5 Nxe4 Bxe7 Qxe7 " +
+                     "Nbd2 Ndf6 Nb1 Nd7 Nbd2 Ndf6 Nb1 Nd7").split(" ");
+        for (var move : moves) {
+            game.makeMove(San.parse(game, move));
+            gameDAO.updateGame(new GameData(gameID, "white", "black", "game1", game));
+        }
+        var stored = gameDAO.getGame(gameID);
+        assertEquals(game.toFen(), stored.game().toFen());
+        assertEquals(game.getBoard().getMoveHistory(), stored.game().getBoard().getMoveHistory());
+        assertEquals(game.getBoard().repetitionCount(), stored.game().getBoard().repetitionCount());
+
+        game.endGame();
+        gameDAO.updateGame(new GameData(gameID, "white", null, "game1", game));
+        stored = gameDAO.getAll().getFirst();
+        assertNull(stored.blackUsername());
+        assertTrue(stored.game().isOver());
+    }
+
+    @Test
+    void snapshotTakenBetweenReadsIsNotMixedIn() throws Exception {
+        var reader = new MoveLogGameDAO(4);
+        var writer = new MoveLogGameDAO(4);
+        reader.clear();
+        var game = new ChessGame();
+        var gameID = reader.insertGame(new GameData(0, "white", "black", "game1", game));
+        for (var move : "e4 e5 Nf3".split(" ")) {
+            game.makeMove(San.parse(game, move));
+            writer.updateGame(new GameData(gameID, "white", "black", "game1", game));
+        }
+        var fenBefore = game.toFen();
+
+        var stored = reader.getGame(gameID, () -> {
+            try {
+                for (var move : "Nc6 Bb5".split(" ")) {
+                    game.makeMove(San.parse(game, move));
+                    writer.updateGame(new GameData(gameID, "white", "black", "game1", game));
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertEquals(fenBefore, stored.game().toFen());
+        assertEquals(game.toFen(), reader.getGame(gameID).game().toFen());
+    }
+
     @ParameterizedTest
     @MethodSource("provideClasses")
     void updateNoGame(Class<? extends GameDAO> gameDAOClass) throws Exception {
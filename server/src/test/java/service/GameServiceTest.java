@@ -1,15 +1,21 @@
 package service;
 
+import chess.*;
+import chess.tablebase.Tablebase;
+import chess.tablebase.TablebaseGenerator;
 import dataaccess.*;
 import models.AuthData;
 import models.GameData;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import requests.CreateGameRequest;
 import requests.JoinGameRequest;
 import requests.RegisterRequest;
 import exception.ResponseException;
+import websocket.commands.UserGameCommand;
 
+import java.nio.file.Path;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -118,4 +124,53 @@ class GameServiceTest {
         assertThrows(ResponseException.class, () -> gameService.joinGame(new JoinGameRequest(
                 "WHITE", 0), authDataOtherUser.authToken()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void makeMoveAdjudicatesTablebaseEndgames(@TempDir Path directory) throws Exception {
+        new TablebaseGenerator(directory).generate("KQvK");
+        gameService = new GameService(gameDAO, authDAO, new Tablebase(directory));
+
+        int winning = insertQueenEndgame();
+        gameService.makeMove(move(winning, 1, 4, 4, 4));
+        var game = gameDAO.getGame(winning).game();
+        assertTrue(game.isOver());
+        assertEquals(ChessGame.GameState.ADJUDICATED_WHITE_WIN, game.getGameState());
+
+        int drawn = insertQueenEndgame();
+        gameService.makeMove(move(drawn, 1, 4, 7, 4));
+        game = gameDAO.getGame(drawn).game();
+        assertTrue(game.isOver());
+        assertEquals(ChessGame.GameState.ADJUDICATED_DRAW, game.getGameState());
+    }
+
+    @Test
+    void makeMoveWithoutTablebasePlaysOn() throws Exception {
+        int gameID = insertQueenEndgame();
+        gameService.makeMove(move(gameID, 1, 4, 4, 4));
+        var game = gameDAO.getGame(gameID).game();
+        assertFalse(game.isOver());
+        assertEquals(ChessGame.GameState.NONE, game.getGameState());
+    }
+
+    private int insertQueenEndgame() throws Exception {
+        var board = new ChessBoard();
+        board.addPiece(ChessPosition.of(1, 1),
+                ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(ChessPosition.of(1, 4),
+                ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        board.addPiece(ChessPosition.of(8, 5),
+                ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        board.clearCastlingRights();
+        var game = new ChessGame();
+        game.setBoard(board);
+        return gameDAO.insertGame(new GameData(0, authData.username(),
+                authDataOtherUser.username(), "Endgame", game));
+    }
+
+    private UserGameCommand move(int gameID, int fromRow, int fromColumn, int toRow,
+                                 int toColumn) {
+        return new UserGameCommand(UserGameCommand.CommandType.MAKE_MOVE, authData.authToken(),
+                gameID, new ChessMove(ChessPosition.of(fromRow, fromColumn),
+                ChessPosition.of(toRow, toColumn), null));
+    }
+}
@@ -0,0 +1,218 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Precomputed attack sets, as bitboards over squares numbered as on {@link ChessBoard}.
+ * <p>
+ * Knights, kings and pawns attack a fixed set of squares from each square, so those are plain
+ * tables. Rooks and bishops are looked up with magic bitboards: the pieces on the squares that
+ * could block a slider are masked out of the occupancy, multiplied by a per-square magic number
+ * and shifted down to an index into a table of every attack set that square can have. The magic
+ * numbers are found when the class loads by trying sparse random numbers from a fixed seed until
+ * one maps every blocker pattern without a harmful collision, which takes a few milliseconds.
+ */
+final class Attacks {
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final long FILE_H = 0x8080808080808080L;
+
+    private static final int[][] KING_STEPS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}, {0, 1},
+            {0, -1}, {1, 0}, {-1, 0}};
+    private static final int[][] KNIGHT_STEPS = {{1, 2}, {2, 1}, {1, -2}, {2, -1}, {-1, 2},
+            {-2, 1}, {-1, -2}, {-2, -1}};
+    private static final int[][] BISHOP_STEPS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final int[][] ROOK_STEPS = {{0, 1}, {0, -1}, {1, 0}, {-1, 0}};
+
+    private static final long[] KING = new long[64];
+    private static final long[] KNIGHT = new long[64];
+    private static final long[][] PAWN = new long[2][64];
+
+    private static final Magic[] ROOK = new Magic[64];
+    private static final Magic[] BISHOP = new Magic[64];
+
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        var random = new SplittableRandom(0x5EED_CAFEL);
+        for (int square = 0; square < 64; square++) {
+            KING[square] = slide(square, 0, KING_STEPS, 1);
+            KNIGHT[square] = slide(square, 0, KNIGHT_STEPS, 1);
+            long bit = 1L << square;
+            PAWN[0][square] = (bit << 7 & ~FILE_H) | (bit << 9 & ~FILE_A);
+            PAWN[1][square] = (bit >>> 9 & ~FILE_H) | (bit >>> 7 & ~FILE_A);
+            ROOK[square] = new Magic(square, ROOK_STEPS, random);
+            BISHOP[square] = new Magic(square, BISHOP_STEPS, random);
+        }
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                long ends = 1L << a | 1L << b;
+                if (a != b && (rook(a, 0) & 1L << b) != 0) {
+                    BETWEEN[a][b] = rook(a, 1L << b) & rook(b, 1L << a);
+                    LINE[a][b] = (rook(a, 0) & rook(b, 0)) | ends;
+                } else if (a != b && (bishop(a, 0) & 1L << b) != 0) {
+                    BETWEEN[a][b] = bishop(a, 1L << b) & bishop(b, 1L << a);
+                    LINE[a][b] = (bishop(a, 0) & bishop(b, 0)) | ends;
+                }
+            }
+        }
+    }
+
+    private Attacks() {
+    }
+
+    static long king(int square) {
+        return KING[square];
+    }
+
+    static long knight(int square) {
+        return KNIGHT[square];
+    }
+
+    /**
+     * @return the squares a pawn of the given color attacks from a square. Swapping the color
+     * gives the squares a pawn of the original color would attack that square from.
+     */
+    static long pawn(ChessGame.TeamColor color, int square) {
+        return PAWN[color.ordinal()][square];
+    }
+
+    static long rook(int square, long occupied) {
+        return ROOK[square].attacks(occupied);
+    }
+
+    static long bishop(int square, long occupied) {
+        return BISHOP[square].attacks(occupied);
+    }
+
+    static long queen(int square, long occupied) {
+        return ROOK[square].attacks(occupied) | BISHOP[square].attacks(occupied);
+    }
+
+    /**
+     * @return the squares a piece of the given color and type attacks from a square
+     */
+    static long of(ChessPiece.PieceType type, ChessGame.TeamColor color, int square,
+                   long occupied) {
+        return switch (type) {
+            case KING -> KING[square];
+            case QUEEN -> queen(square, occupied);
+            case BISHOP -> bishop(square, occupied);
+            case KNIGHT -> KNIGHT[square];
+            case ROOK -> rook(square, occupied);
+            case PAWN -> PAWN[color.ordinal()][square];
+        };
+    }
+
+    /**
+     * @return the squares strictly between two squares on the same rank, file or diagonal, or
+     * nothing if they do not share one
+     */
+    static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    /**
+     * @return the whole rank, file or diagonal through two squares, or nothing if they do not
+     * share one
+     */
+    static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    /**
+     * Walks each step direction from a square until the edge of the board or an occupied
+     * square, which is included. Only used to fill the tables.
+     */
+    private static long slide(int square, long occupied, int[][] steps, int distance) {
+        int rank = square >>> 3;
+        int file = square & 7;
+        long attacks = 0;
+        for (int[] step : steps) {
+            for (int dist = 1; dist <= distance; dist++) {
+                int newRank = rank + step[0] * dist;
+                int newFile = file + step[1] * dist;
+                if (newRank < 0 || newRank > 7 || newFile < 0 || newFile > 7) {
+                    break;
+                }
+                long bit = 1L << (newRank * 8 + newFile);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+            }
+        }
+        return attacks;
+    }
+
+    private static final class Magic {
+        private final long mask;
+        private final long magic;
+        private final int shift;
+        private final long[] attacks;
+
+        Magic(int square, int[][] steps, SplittableRandom random) {
+            mask = blockerMask(square, steps);
+            int bits = Long.bitCount(mask);
+            shift = 64 - bits;
+            int patterns = 1 << bits;
+            var occupancies = new long[patterns];
+            var references = new long[patterns];
+            long subset = 0;
+            for (int i = 0; i < patterns; i++) {
+                occupancies[i] = subset;
+                references[i] = slide(square, subset, steps, 7);
+                subset = (subset - mask) & mask;
+            }
+            var table = new long[patterns];
+            var filled = new boolean[patterns];
+            long candidate;
+            search:
+            while (true) {
+                candidate = random.nextLong() & random.nextLong() & random.nextLong();
+                if (Long.bitCount((mask * candidate) >>> 56) < 6) {
+                    continue;
+                }
+                Arrays.fill(filled, false);
+                for (int i = 0; i < patterns; i++) {
+                    int index = (int) ((occupancies[i] * candidate) >>> shift);
+                    if (!filled[index]) {
+                        filled[index] = true;
+                        table[index] = references[i];
+                    } else if (table[index] != references[i]) {
+                        continue search;
+                    }
+                }
+                break;
+            }
+            magic = candidate;
+            attacks = table;
+        }
+
+        long attacks(long occupied) {
+            return attacks[(int) (((occupied & mask) * magic) >>> shift)];
+        }
+
+        /**
+         * The squares whose occupancy can change the slider's attacks: every square it could
+         * reach on an empty board except the last one in each direction.
+         */
+        private static long blockerMask(int square, int[][] steps) {
+            int rank = square >>> 3;
+            int file = square & 7;
+            long mask = 0;
+            for (int[] step : steps) {
+                int newRank = rank + step[0];
+                int newFile = file + step[1];
+                while (newRank + step[0] >= 0 && newRank + step[0] <= 7 &&
+                       newFile + step[1] >= 0 && newFile + step[1] <= 7) {
+                    mask |= 1L << (newRank * 8 + newFile);
+                    newRank += step[0];
+                    newFile += step[1];
+                }
+            }
+            return mask;
+        }
+    }
+}
@@ -1,13 +1,23 @@
 package chess;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.*;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * The {@code board} array is the public face of the board, but every query is answered from
+ * twelve bitboards (one per color and piece type) plus per-color occupancy masks, which are kept
+ * in sync by {@link #addPiece} and {@link #removePiece}. Squares are numbered 0 (a1) to 63 (h8).
+ * <p>
+ * The board also tracks which castles are still allowed and the square a pawn can be captured
+ * on en passant, and keeps a Zobrist key of its pieces up to date as they move.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessBoardAdapterFactory.class)
 public class ChessBoard {
     private final ChessPiece[][] board = new ChessPiece[8][8];
     private static final String[] START_TEMPLATE = {"RNBQKBNR", "PPPPPPPP", "        ", "        "
@@ -15,16 +25,93 @@ public class ChessBoard {
 
     private final List<ChessMove> pastMoves = new ArrayList<>();
 
+    static final int WHITE_KINGSIDE = 1;
+    static final int WHITE_QUEENSIDE = 2;
+    static final int BLACK_KINGSIDE = 4;
+    static final int BLACK_QUEENSIDE = 8;
+    static final int ALL_CASTLING_RIGHTS = 15;
+    public static final int NO_SQUARE = -1;
+    /**
+     * Game phase with every piece of the starting position on the board; see {@link #getPhase()}
+     */
+    public static final int FULL_PHASE = 24;
+
+    private int castlingRights = ALL_CASTLING_RIGHTS;
+    private int enPassantSquare = NO_SQUARE;
+    private int halfmoveClock;
+
+    private final transient long[] pieceBitboards = new long[12];
+    private final transient long[] colorBitboards = new long[2];
+    private transient long occupied;
+    private transient long pieceKey;
+    private final transient int[] pieceCounts = new int[12];
+    private final transient int[] material = new int[2];
+    private final transient int[] midgameScores = new int[2];
+    private final transient int[] endgameScores = new int[2];
+    private transient int phase;
+
+    /**
+     * Material value of each piece type in centipawns, indexed by ordinal. The king counts for
+     * nothing since both sides always have one.
+     */
+    static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+    private static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+
+    /*
+     * One packed record per move made, so unmakeMove can put the board back exactly: bits 0-15
+     * the packed move, bits 16-21 the square the captured piece stood on, bits 22-25 the
+     * captured piece index plus one (zero for no capture), bits 26-29 the index of the piece
+     * that moved, bit 30 set for a castle, bits 31-34 the castling rights and bits 35-41 the en
+     * passant square plus one from before the move, bit 42 set if the move was also added to
+     * pastMoves, and bits 43-62 the halfmove clock from before the move.
+     */
+    private transient long[] undoStack = new long[16];
+    private transient int undoCount;
+
+    /*
+     * The Zobrist key of the position before each move, oldest first, for spotting repeated
+     * positions. Only the entries since the last capture or pawn move are ever compared, and
+     * only those are saved when the board is serialized.
+     */
+    private transient long[] keyHistory = new long[16];
+    private transient int historyCount;
+
+    private static final long CASTLE_FLAG = 1L << 30;
+    private static final long RECORDED_FLAG = 1L << 42;
+    private static final int CLOCK_LIMIT = (1 << 20) - 1;
+    private static final int[] CASTLING_RIGHTS_KEPT = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_RIGHTS_KEPT, ALL_CASTLING_RIGHTS);
+        CASTLING_RIGHTS_KEPT[0] &= ~WHITE_QUEENSIDE;
+        CASTLING_RIGHTS_KEPT[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_RIGHTS_KEPT[7] &= ~WHITE_KINGSIDE;
+        CASTLING_RIGHTS_KEPT[56] &= ~BLACK_QUEENSIDE;
+        CASTLING_RIGHTS_KEPT[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_RIGHTS_KEPT[63] &= ~BLACK_KINGSIDE;
+    }
+
     public ChessBoard() {
     }
 
     public ChessBoard(ChessBoard board) {
         for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                var piece = board.board[i][j];
-                this.board[i][j] = piece == null ? null : new ChessPiece(piece);
-            }
+            System.arraycopy(board.board[i], 0, this.board[i], 0, 8);
         }
+        System.arraycopy(board.pieceBitboards, 0, pieceBitboards, 0, pieceBitboards.length);
+        System.arraycopy(board.colorBitboards, 0, colorBitboards, 0, colorBitboards.length);
+        occupied = board.occupied;
+        System.arraycopy(board.pieceCounts, 0, pieceCounts, 0, pieceCounts.length);
+        System.arraycopy(board.material, 0, material, 0, material.length);
+        System.arraycopy(board.midgameScores, 0, midgameScores, 0, midgameScores.length);
+        System.arraycopy(board.endgameScores, 0, endgameScores, 0, endgameScores.length);
+        phase = board.phase;
+        pieceKey = board.pieceKey;
+        castlingRights = board.castlingRights;
+        enPassantSquare = board.enPassantSquare;
+        halfmoveClock = board.halfmoveClock;
+        keyHistory = Arrays.copyOf(board.keyHistory, board.keyHistory.length);
+        historyCount = board.historyCount;
     }
 
     /**
@@ -34,41 +121,334 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        board[position.getRow() - 1][position.getColumn() - 1] = piece;
+        int square = squareOf(position);
+        clearSquare(square);
+        if (piece != null) {
+            fillSquare(square, ChessPiece.of(piece.getTeamColor(), piece.getPieceType()));
+        }
     }
 
     /**
-     * Executes the specified move.
+     * Executes the specified move. A king moving two squares castles, bringing the rook with it,
+     * and a pawn moving diagonally onto an empty square captures en passant.
      *
      * @param move the move to execute
      * @throws InvalidMoveException if move is invalid
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
-        var startPosition = move.getStartPosition();
-        var endPosition = move.getEndPosition();
-        var piece = getPiece(startPosition);
-        if (piece == null) {
-            throw new InvalidMoveException("No piece at location " + startPosition);
-        }
-        removePiece(startPosition);
-        ChessPiece capturedPiece = removePiece(endPosition);
-        if (capturedPiece == null && piece.getPieceType() == ChessPiece.PieceType.PAWN) {
-            int backDirection = switch (piece.getTeamColor()) {
-                case WHITE -> -1;
-                case BLACK -> 1;
-            };
-            removePiece(new ChessPosition(
-                    endPosition.getRow() + backDirection, endPosition.getColumn()));
-        }
-        if (move.getPromotionPiece() != null) {
-            var promotedPiece = new ChessPiece(piece.getTeamColor(), move.getPromotionPiece());
-            addPiece(endPosition, promotedPiece);
-        } else {
-            addPiece(endPosition, piece);
+        if (getPiece(move.getStartPosition()) == null) {
+            throw new InvalidMoveException("No piece at location " + move.getStartPosition());
         }
+        makeMove(Move.fromChessMove(move));
+        undoStack[undoCount - 1] |= RECORDED_FLAG;
         pastMoves.add(move);
     }
 
+    /**
+     * Executes a {@link Move packed move} without adding it to the move history, for searches
+     * that take every move back again with {@link #unmakeMove}. There must be a piece on the
+     * move's start square.
+     *
+     * @param move the packed move to execute
+     */
+    public void makeMove(int move) {
+        if (historyCount == keyHistory.length) {
+            keyHistory = Arrays.copyOf(keyHistory, historyCount * 2);
+        }
+        keyHistory[historyCount++] = getZobristKey();
+        int start = Move.from(move);
+        int end = Move.to(move);
+        var piece = clearSquare(start);
+        long record = (move & Move.MASK) |
+                      (long) pieceIndex(piece.getTeamColor(), piece.getPieceType()) << 26 |
+                      (long) castlingRights << 31 | (long) (enPassantSquare + 1) << 35 |
+                      (long) Math.min(halfmoveClock, CLOCK_LIMIT) << 43;
+        int capturedSquare = end;
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN && (start & 7) != (end & 7) &&
+            board[end >>> 3][end & 7] == null) {
+            capturedSquare = (start & ~7) | (end & 7);
+        }
+        var capturedPiece = clearSquare(capturedSquare);
+        if (capturedPiece != null) {
+            record |= (long) capturedSquare << 16 |
+                      (long) (pieceIndex(capturedPiece.getTeamColor(),
+                              capturedPiece.getPieceType()) + 1) << 22;
+        }
+        var promotion = Move.promotion(move);
+        if (promotion != null) {
+            fillSquare(end, ChessPiece.of(piece.getTeamColor(), promotion));
+        } else {
+            fillSquare(end, piece);
+        }
+        if (piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(end - start) == 2) {
+            record |= CASTLE_FLAG;
+            int rank = start & ~7;
+            boolean kingside = end > start;
+            fillSquare(rank + (kingside ? 5 : 3), clearSquare(rank + (kingside ? 7 : 0)));
+        }
+        castlingRights &= CASTLING_RIGHTS_KEPT[start] & CASTLING_RIGHTS_KEPT[end];
+        boolean irreversible =
+                capturedPiece != null || piece.getPieceType() == ChessPiece.PieceType.PAWN;
+        halfmoveClock = irreversible ? 0 : halfmoveClock + 1;
+        enPassantSquare = NO_SQUARE;
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN && Math.abs(end - start) == 16) {
+            var opponent = ChessGame.otherTeam(piece.getTeamColor());
+            if ((pieceBitboards[pieceIndex(opponent, ChessPiece.PieceType.PAWN)] &
+                 adjacentFiles(end)) != 0) {
+                enPassantSquare = (start + end) / 2;
+            }
+        }
+        if (undoCount == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoCount * 2);
+        }
+        undoStack[undoCount++] = record;
+    }
+
+    /**
+     * Takes back the most recent move made with {@link #makeMove}, restoring any captured piece
+     * and, for a castle, the rook.
+     *
+     * @throws IllegalStateException if there is no move on this board to take back
+     */
+    public void unmakeMove() {
+        if (undoCount == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        long record = undoStack[--undoCount];
+        if ((record & RECORDED_FLAG) != 0) {
+            pastMoves.removeLast();
+        }
+        int start = Move.from((int) record);
+        int end = Move.to((int) record);
+        clearSquare(end);
+        fillSquare(start, ChessPiece.ofIndex((int) (record >>> 26) & 0xF));
+        int captured = (int) (record >>> 22) & 0xF;
+        if (captured != 0) {
+            fillSquare((int) (record >>> 16) & 0x3F, ChessPiece.ofIndex(captured - 1));
+        }
+        if ((record & CASTLE_FLAG) != 0) {
+            int rank = start & ~7;
+            boolean kingside = end > start;
+            fillSquare(rank + (kingside ? 7 : 0), clearSquare(rank + (kingside ? 5 : 3)));
+        }
+        castlingRights = (int) (record >>> 31) & 0xF;
+        enPassantSquare = (int) (record >>> 35 & 0x7F) - 1;
+        halfmoveClock = (int) (record >>> 43) & CLOCK_LIMIT;
+        historyCount--;
+    }
+
+    private static long adjacentFiles(int square) {
+        long bit = 1L << square;
+        return (bit << 1 & ~0x0101010101010101L) | (bit >>> 1 & ~0x8080808080808080L);
+    }
+
+    /**
+     * @return Zobrist key of the pieces, castling rights and en passant file, without the side
+     * to move (see {@link Zobrist})
+     */
+    public long getZobristKey() {
+        long key = pieceKey ^ Zobrist.CASTLING[getCastlingRights()];
+        if (enPassantSquare != NO_SQUARE) {
+            key ^= Zobrist.EN_PASSANT_FILE[enPassantSquare & 7];
+        }
+        return key;
+    }
+
+    /**
+     * @return True if either team could still castle, now or later
+     */
+    public boolean hasCastlingRights() {
+        return getCastlingRights() != 0;
+    }
+
+    /**
+     * Gives up every castling right, for positions set up away from the start where kings and
+     * rooks on their home squares are not meant to have castled yet
+     */
+    public void clearCastlingRights() {
+        castlingRights = 0;
+    }
+
+    /**
+     * @param rights castling rights as a mask of WHITE_KINGSIDE, WHITE_QUEENSIDE, BLACK_KINGSIDE
+     *               and BLACK_QUEENSIDE; rights whose king or rook is off its home square are
+     *               ignored
+     */
+    void setCastlingRights(int rights) {
+        castlingRights = rights & ALL_CASTLING_RIGHTS;
+    }
+
+    /**
+     * Castling rights that are still held and whose king and rook are on their home squares, as
+     * a mask of WHITE_KINGSIDE, WHITE_QUEENSIDE, BLACK_KINGSIDE and BLACK_QUEENSIDE
+     */
+    int getCastlingRights() {
+        int rights = castlingRights;
+        long whiteRooks = pieceBitboards[pieceIndex(ChessGame.TeamColor.WHITE,
+                ChessPiece.PieceType.ROOK)];
+        long blackRooks = pieceBitboards[pieceIndex(ChessGame.TeamColor.BLACK,
+                ChessPiece.PieceType.ROOK)];
+        if ((pieceBitboards[pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING)] &
+             1L << 4) == 0) {
+            rights &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        }
+        if ((pieceBitboards[pieceIndex(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING)] &
+             1L << 60) == 0) {
+            rights &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        }
+        if ((whiteRooks & 1L << 7) == 0) {
+            rights &= ~WHITE_KINGSIDE;
+        }
+        if ((whiteRooks & 1L) == 0) {
+            rights &= ~WHITE_QUEENSIDE;
+        }
+        if ((blackRooks & 1L << 63) == 0) {
+            rights &= ~BLACK_KINGSIDE;
+        }
+        if ((blackRooks & 1L << 56) == 0) {
+            rights &= ~BLACK_QUEENSIDE;
+        }
+        return rights;
+    }
+
+    /**
+     * @return the square a pawn may be captured on en passant, or NO_SQUARE
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * @return how many pieces of the given color and type are on the board
+     */
+    public int getPieceCount(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceCounts[pieceIndex(color, type)];
+    }
+
+    /**
+     * @return total value in centipawns of a team's pieces, kings excluded
+     */
+    public int getMaterial(ChessGame.TeamColor color) {
+        return material[color.ordinal()];
+    }
+
+    /**
+     * @return total middlegame piece-square value in centipawns of a team's pieces, material
+     * included
+     */
+    public int getMidgameScore(ChessGame.TeamColor color) {
+        return midgameScores[color.ordinal()];
+    }
+
+    /**
+     * @return total endgame piece-square value in centipawns of a team's pieces, material
+     * included
+     */
+    public int getEndgameScore(ChessGame.TeamColor color) {
+        return endgameScores[color.ordinal()];
+    }
+
+    /**
+     * @return how far from the endgame the position is, by the pieces left on the board: from 0
+     * with only kings and pawns up to {@link #FULL_PHASE} with all of the starting pieces, or more
+     * after promotions
+     */
+    public int getPhase() {
+        return phase;
+    }
+
+    /**
+     * Determines if neither side has the material left to checkmate by any series of legal
+     * moves: kings with at most one knight or bishop between them, or with only bishops that all
+     * stand on squares of one color.
+     *
+     * @return True if checkmate has become impossible
+     */
+    public boolean hasInsufficientMaterial() {
+        int minors = 0;
+        for (int base = 0; base < 12; base += 6) {
+            if (pieceCounts[base + ChessPiece.PieceType.PAWN.ordinal()] != 0 ||
+                pieceCounts[base + ChessPiece.PieceType.ROOK.ordinal()] != 0 ||
+                pieceCounts[base + ChessPiece.PieceType.QUEEN.ordinal()] != 0 ||
+                pieceCounts[base + ChessPiece.PieceType.KNIGHT.ordinal()] > 1) {
+                return false;
+            }
+            minors += pieceCounts[base + ChessPiece.PieceType.KNIGHT.ordinal()] +
+                      pieceCounts[base + ChessPiece.PieceType.BISHOP.ordinal()];
+        }
+        if (minors <= 1) {
+            return true;
+        }
+        int knights = pieceCounts[ChessPiece.PieceType.KNIGHT.ordinal()] +
+                      pieceCounts[6 + ChessPiece.PieceType.KNIGHT.ordinal()];
+        long bishops = pieceBitboards[ChessPiece.PieceType.BISHOP.ordinal()] |
+                       pieceBitboards[6 + ChessPiece.PieceType.BISHOP.ordinal()];
+        return knights == 0 &&
+               ((bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0);
+    }
+
+    /**
+     * Sets the square behind a pawn that has just moved two squares, keeping it only if an enemy
+     * pawn stands beside that pawn to capture it, as {@link #makeMove(int)} does
+     *
+     * @param square the square the pawn passed over
+     */
+    void setEnPassantSquare(int square) {
+        int pawn = square < 32 ? square + 8 : square - 8;
+        var pushed = pieceAt(pawn);
+        enPassantSquare = NO_SQUARE;
+        if (pushed != null && pushed.getPieceType() == ChessPiece.PieceType.PAWN &&
+            (pieceBitboards[pieceIndex(ChessGame.otherTeam(pushed.getTeamColor()),
+                    ChessPiece.PieceType.PAWN)] & adjacentFiles(pawn)) != 0) {
+            enPassantSquare = square;
+        }
+    }
+
+    /**
+     * @return how many moves have been made since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    void setHalfmoveClock(int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+    }
+
+    /**
+     * Counts how many times the current position has occurred, this time included. Positions are
+     * the same when the same side is to move with the same pieces, castling rights and en
+     * passant capture. Only positions since the last capture or pawn move are looked at, since
+     * none from before it can come back.
+     *
+     * @return 1 for a position that has not occurred before
+     */
+    public int repetitionCount() {
+        long key = getZobristKey();
+        int count = 1;
+        int oldest = Math.max(0, historyCount - halfmoveClock);
+        for (int i = historyCount - 2; i >= oldest; i -= 2) {
+            if (keyHistory[i] == key) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the keys of the positions since the last capture or pawn move, oldest first, which
+     * are all {@link #repetitionCount} needs
+     */
+    long[] getRecentKeys() {
+        return Arrays.copyOfRange(keyHistory, Math.max(0, historyCount - halfmoveClock),
+                historyCount);
+    }
+
+    void setRecentKeys(long[] keys) {
+        keyHistory = Arrays.copyOf(keys, Math.max(16, keys.length * 2));
+        historyCount = keys.length;
+    }
+
     /**
      * Gets a chess piece on the chessboard
      *
@@ -81,9 +461,102 @@ public class ChessBoard {
     }
 
     public ChessPiece removePiece(ChessPosition position) {
-        var capturedPiece = getPiece(position);
-        board[position.getRow() - 1][position.getColumn() - 1] = null;
-        return capturedPiece;
+        return clearSquare(squareOf(position));
+    }
+
+    private void fillSquare(int square, ChessPiece piece) {
+        board[square >>> 3][square & 7] = piece;
+        long bit = 1L << square;
+        int index = pieceIndex(piece.getTeamColor(), piece.getPieceType());
+        pieceBitboards[index] |= bit;
+        pieceKey ^= Zobrist.PIECE_SQUARE[index * 64 + square];
+        colorBitboards[piece.getTeamColor().ordinal()] |= bit;
+        occupied |= bit;
+        pieceCounts[index]++;
+        int color = piece.getTeamColor().ordinal();
+        int type = piece.getPieceType().ordinal();
+        material[color] += PIECE_VALUES[type];
+        midgameScores[color] += PieceSquareTables.MIDGAME[index * 64 + square];
+        endgameScores[color] += PieceSquareTables.ENDGAME[index * 64 + square];
+        phase += PieceSquareTables.PHASE_WEIGHTS[type];
+    }
+
+    private ChessPiece clearSquare(int square) {
+        var piece = board[square >>> 3][square & 7];
+        if (piece == null) {
+            return null;
+        }
+        board[square >>> 3][square & 7] = null;
+        long bit = ~(1L << square);
+        int index = pieceIndex(piece.getTeamColor(), piece.getPieceType());
+        pieceBitboards[index] &= bit;
+        pieceKey ^= Zobrist.PIECE_SQUARE[index * 64 + square];
+        colorBitboards[piece.getTeamColor().ordinal()] &= bit;
+        occupied &= bit;
+        pieceCounts[index]--;
+        int color = piece.getTeamColor().ordinal();
+        int type = piece.getPieceType().ordinal();
+        material[color] -= PIECE_VALUES[type];
+        midgameScores[color] -= PieceSquareTables.MIDGAME[index * 64 + square];
+        endgameScores[color] -= PieceSquareTables.ENDGAME[index * 64 + square];
+        phase -= PieceSquareTables.PHASE_WEIGHTS[type];
+        return piece;
+    }
+
+    /**
+     * Rebuilds the bitboards and piece key from the {@code board} array, swapping its pieces for
+     * the shared {@link ChessPiece#of} instances. Only needed when the array has been filled in
+     * from outside the normal mutators, as Gson does when deserializing.
+     */
+    void rebuildBitboards() {
+        Arrays.fill(pieceBitboards, 0);
+        Arrays.fill(colorBitboards, 0);
+        occupied = 0;
+        pieceKey = 0;
+        Arrays.fill(pieceCounts, 0);
+        Arrays.fill(material, 0);
+        Arrays.fill(midgameScores, 0);
+        Arrays.fill(endgameScores, 0);
+        phase = 0;
+        for (int square = 0; square < 64; square++) {
+            var piece = board[square >>> 3][square & 7];
+            if (piece != null) {
+                fillSquare(square, ChessPiece.of(piece.getTeamColor(), piece.getPieceType()));
+            }
+        }
+    }
+
+    static int squareOf(ChessPosition position) {
+        return (position.getRow() - 1) * 8 + position.getColumn() - 1;
+    }
+
+    static ChessPosition positionOf(int square) {
+        return ChessPosition.ofSquare(square);
+    }
+
+    static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    /**
+     * @return bitboard of every square holding a piece of the given color and type
+     */
+    public long getBitboard(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceBitboards[pieceIndex(color, type)];
+    }
+
+    /**
+     * @return bitboard of every square holding a piece of the given color
+     */
+    public long getOccupancy(ChessGame.TeamColor color) {
+        return colorBitboards[color.ordinal()];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long getOccupancy() {
+        return occupied;
     }
 
     /**
@@ -91,15 +564,20 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
+        for (int square = 0; square < 64; square++) {
+            clearSquare(square);
+        }
+        castlingRights = ALL_CASTLING_RIGHTS;
+        enPassantSquare = NO_SQUARE;
+        halfmoveClock = 0;
+        historyCount = 0;
         for (int row = 0; row < 8; row++) {
             String pieceRow = ChessBoard.START_TEMPLATE[row];
             for (int col = 0; col < 8; col++) {
                 char pieceChar = pieceRow.charAt(col);
-                ChessPiece piece;
+                ChessPiece piece = null;
 
-                if (pieceChar == ' ') {
-                    piece = null;
-                } else {
+                if (pieceChar != ' ') {
                     ChessGame.TeamColor color = Character.isUpperCase(pieceChar) ?
                             ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
                     ChessPiece.PieceType type = switch (Character.toLowerCase(pieceChar)) {
@@ -111,9 +589,11 @@ public class ChessBoard {
                         case 'k' -> ChessPiece.PieceType.KING;
                         default -> null;
                     };
-                    piece = new ChessPiece(color, type);
+                    piece = ChessPiece.of(color, type);
+                }
+                if (piece != null) {
+                    fillSquare(row * 8 + col, piece);
                 }
-                board[row][col] = piece;
             }
         }
     }
@@ -124,12 +604,19 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(board, that.board);
+        return Arrays.equals(pieceBitboards, that.pieceBitboards);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(Arrays.deepHashCode(board));
+        return Long.hashCode(pieceKey);
+    }
+
+    /**
+     * @return Zobrist key of the pieces alone, which like equals ignores castling and en passant
+     */
+    long getPieceKey() {
+        return pieceKey;
     }
 
     @Override
@@ -160,32 +647,39 @@ public class ChessBoard {
     }
 
     public HashSet<ChessPosition> getAttackedBy(ChessGame.TeamColor teamColor) {
-        HashSet<ChessPosition> piecePositions = getPiecePositionsOf(teamColor);
-        HashSet<ChessPosition> attackedPositions = new HashSet<>();
-        for (var position : piecePositions) {
-            var piece = getPiece(position);
-            var attacks = piece.pieceAttacks(this, position);
-            for (var attack : attacks) {
-                var endPos = attack.getEndPosition();
-                attackedPositions.add(endPos);
-            }
+        return positionsOf(attacksBy(teamColor));
+    }
+
+    /**
+     * @return bitboard of every square attacked by a piece of the given color
+     */
+    long attacksBy(ChessGame.TeamColor teamColor) {
+        long pieces = colorBitboards[teamColor.ordinal()];
+        long attacks = 0;
+        while (pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            attacks |= pieceAt(square).attacks(this, square);
         }
-        return attackedPositions;
+        return attacks;
     }
 
-    private HashSet<ChessPosition> getPiecePositionsOf(ChessGame.TeamColor teamColor) {
+    /**
+     * @return the piece on a square numbered as on this board, or null
+     */
+    public ChessPiece pieceAt(int square) {
+        return board[square >>> 3][square & 7];
+    }
+
+    public HashSet<ChessPosition> getPiecePositionsOf(ChessGame.TeamColor teamColor) {
+        return positionsOf(colorBitboards[teamColor.ordinal()]);
+    }
+
+    private static HashSet<ChessPosition> positionsOf(long bitboard) {
         HashSet<ChessPosition> positions = new HashSet<>();
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                var position = new ChessPosition(i, j);
-                var piece = getPiece(position);
-                if (piece == null) {
-                    continue;
-                }
-                if (piece.getTeamColor() == teamColor) {
-                    positions.add(position);
-                }
-            }
+        while (bitboard != 0) {
+            positions.add(positionOf(Long.numberOfTrailingZeros(bitboard)));
+            bitboard &= bitboard - 1;
         }
         return positions;
     }
@@ -197,15 +691,41 @@ public class ChessBoard {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(ChessGame.TeamColor teamColor) {
-        ChessGame.TeamColor opponent = ChessGame.otherTeam(teamColor);
-        HashSet<ChessPosition> attackedByOpponent = getAttackedBy(opponent);
-        for (var position : attackedByOpponent) {
-            var attackedPiece = getPiece(position);
-            if (attackedPiece != null && attackedPiece.is(teamColor, ChessPiece.PieceType.KING)) {
-                return true;
-            }
-        }
-        return false;
+        long kings = pieceBitboards[pieceIndex(teamColor, ChessPiece.PieceType.KING)];
+        return kings != 0 &&
+               isSquareAttacked(Long.numberOfTrailingZeros(kings), ChessGame.otherTeam(teamColor));
+    }
+
+    /**
+     * Determines if any piece of a team attacks a square, by looking outward from the square for
+     * each kind of piece rather than generating the team's attacks
+     *
+     * @param square  the square to test, 0 (a1) to 63 (h8)
+     * @param byColor the team that may be attacking it
+     * @return True if a piece of that team attacks the square
+     */
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor byColor) {
+        return attackersOf(square, byColor, occupied) != 0;
+    }
+
+    /**
+     * @param square   the square to test
+     * @param byColor  the team whose attackers to find
+     * @param occupied the occupancy sliders are blocked by, which may differ from the board's
+     * @return bitboard of the pieces of that team attacking the square
+     */
+    long attackersOf(int square, ChessGame.TeamColor byColor, long occupied) {
+        int base = byColor.ordinal() * 6;
+        long queens = pieceBitboards[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        return (Attacks.pawn(ChessGame.otherTeam(byColor), square) &
+                pieceBitboards[base + ChessPiece.PieceType.PAWN.ordinal()]) |
+               (Attacks.knight(square) &
+                pieceBitboards[base + ChessPiece.PieceType.KNIGHT.ordinal()]) |
+               (Attacks.king(square) & pieceBitboards[base + ChessPiece.PieceType.KING.ordinal()]) |
+               (Attacks.bishop(square, occupied) &
+                (pieceBitboards[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens)) |
+               (Attacks.rook(square, occupied) &
+                (pieceBitboards[base + ChessPiece.PieceType.ROOK.ordinal()] | queens));
     }
 
     /**
@@ -216,47 +736,129 @@ public class ChessBoard {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        HashSet<ChessMove> moves = new HashSet<>();
-        var piece = getPiece(startPosition);
-        if (piece == null) {
+        if (getPiece(startPosition) == null) {
             return null;
         }
-        var allMoves = piece.pieceMoves(this, startPosition);
-        var pieceColor = piece.getTeamColor();
-        for (var move : allMoves) {
-            var testBoard = new ChessBoard(this);
-            try {
-                testBoard.makeMove(move);
-            } catch (InvalidMoveException e) {
-                continue;
-            }
-            if (testBoard.isInCheck(pieceColor)) {
-                continue;
+        int square = squareOf(startPosition);
+        var moves = new MoveList();
+        generateLegalMoves(getPiece(startPosition).getTeamColor(), moves);
+        var legalMoves = new HashSet<ChessMove>();
+        for (int i = 0; i < moves.size(); i++) {
+            if (Move.from(moves.get(i)) == square) {
+                legalMoves.add(Move.toChessMove(moves.get(i)));
             }
-            moves.add(move);
         }
-        return moves;
+        return legalMoves;
+    }
+
+    /**
+     * Adds every legal move for a team to a list as {@link Move packed moves}, castling
+     * included. See {@link LegalMoveGenerator}.
+     *
+     * @param teamColor the team to generate moves for
+     * @param moves     the list to add the moves to
+     */
+    public void generateLegalMoves(ChessGame.TeamColor teamColor, MoveList moves) {
+        LegalMoveGenerator.generate(this, teamColor, moves);
+    }
+
+    /**
+     * Adds the legal captures, en passant included, and promotions for a team to a list as
+     * {@link Move packed moves}
+     *
+     * @param teamColor the team to generate moves for
+     * @param moves     the list to add the moves to
+     */
+    public void generateLegalCaptures(ChessGame.TeamColor teamColor, MoveList moves) {
+        LegalMoveGenerator.generateTactical(this, teamColor, moves);
+    }
+
+    /**
+     * Adds the castles a team can make: it still holds the castling right, so neither the king
+     * nor that rook has moved, the squares between them are empty, and the king does not start
+     * in, pass through or land on an attacked square.
+     */
+    void addCastlingMoves(ChessGame.TeamColor teamColor, MoveList moves) {
+        boolean white = teamColor == ChessGame.TeamColor.WHITE;
+        int rights = getCastlingRights() & (white ? WHITE_KINGSIDE | WHITE_QUEENSIDE :
+                BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        int kingSquare = white ? 4 : 60;
+        var opponent = ChessGame.otherTeam(teamColor);
+        if (rights == 0 || isSquareAttacked(kingSquare, opponent)) {
+            return;
+        }
+        if ((rights & (WHITE_KINGSIDE | BLACK_KINGSIDE)) != 0 &&
+            (occupied & 3L << (kingSquare + 1)) == 0 &&
+            !isSquareAttacked(kingSquare + 1, opponent) &&
+            !isSquareAttacked(kingSquare + 2, opponent)) {
+            moves.add(Move.of(kingSquare, kingSquare + 2));
+        }
+        if ((rights & (WHITE_QUEENSIDE | BLACK_QUEENSIDE)) != 0 &&
+            (occupied & 7L << (kingSquare - 3)) == 0 &&
+            !isSquareAttacked(kingSquare - 1, opponent) &&
+            !isSquareAttacked(kingSquare - 2, opponent)) {
+            moves.add(Move.of(kingSquare, kingSquare - 2));
+        }
+    }
+
+    /**
+     * Determines if a team has any legal move, stopping at the first piece found to have one
+     *
+     * @param teamColor the team to look for a move for
+     * @return True if the team has at least one legal move
+     */
+    public boolean hasLegalMove(ChessGame.TeamColor teamColor) {
+        return LegalMoveGenerator.hasLegalMove(this, teamColor);
     }
 
     public HashSet<ChessMove> validMoves(ChessGame.TeamColor teamColor) {
-        var legalMoves = new HashSet<ChessMove>();
-        getPiecePositionsOf(teamColor).forEach(position -> legalMoves.addAll(validMoves(position)));
-        return legalMoves;
+        var moves = new MoveList();
+        generateLegalMoves(teamColor, moves);
+        return new HashSet<>(moves.toChessMoves());
     }
 
 
+    /**
+     * @return the home squares of the rooks a team could still castle with
+     */
     public HashSet<ChessPosition> getCastleCandidates(ChessGame.TeamColor color) {
-        HashSet<ChessPosition> piecePositions = getPiecePositionsOf(color);
-        HashSet<ChessPosition> rookPositions = new HashSet<>();
-        for (var position : piecePositions) {
-            var piece = getPiece(position);
-            if (piece.getPieceType() == ChessPiece.PieceType.ROOK && neverMovedFrom(position)) {
-                rookPositions.add(position);
-            }
+        var rookPositions = new HashSet<ChessPosition>();
+        int rights = getCastlingRights();
+        boolean white = color == ChessGame.TeamColor.WHITE;
+        int homeRank = white ? 0 : 56;
+        if ((rights & (white ? WHITE_KINGSIDE : BLACK_KINGSIDE)) != 0) {
+            rookPositions.add(positionOf(homeRank + 7));
+        }
+        if ((rights & (white ? WHITE_QUEENSIDE : BLACK_QUEENSIDE)) != 0) {
+            rookPositions.add(positionOf(homeRank));
         }
         return rookPositions;
     }
 
+    /**
+     * @return the moves made on this board with {@link #makeMove(ChessMove)}, oldest first, as a
+     * read-only view
+     */
+    public List<ChessMove> getMoveHistory() {
+        return Collections.unmodifiableList(pastMoves);
+    }
+
+    /**
+     * Replaces the move history without making the moves, for boards read back from storage
+     * whose pieces are already in place
+     */
+    void setMoveHistory(List<ChessMove> moves) {
+        pastMoves.clear();
+        pastMoves.addAll(moves);
+    }
+
+    /**
+     * Searches the move history for a move from a square. Move generation does not use this;
+     * castling is decided by the castling rights the board keeps as moves are made.
+     *
+     * @param position the square to look for
+     * @return True if no recorded move started on that square
+     */
     public boolean neverMovedFrom(ChessPosition position) {
         for (ChessMove move : pastMoves) {
             if (Objects.equals(move.getStartPosition(), position)) {
@@ -266,26 +868,40 @@ public class ChessBoard {
         return true;
     }
 
+    /**
+     * @param targetPos a square a pawn might capture onto
+     * @return True if a pawn that has just moved two squares can be taken en passant there
+     */
     public boolean canEnPassantAt(ChessPosition targetPos) {
-        if (pastMoves.isEmpty()) {
-            return false;
-        }
-        ChessMove lastMove = pastMoves.getLast();
-        ChessPiece movedPiece = getPiece(lastMove.getEndPosition());
-        if (movedPiece.getPieceType() != ChessPiece.PieceType.PAWN) {
-            return false;
+        return squareOf(targetPos) == enPassantSquare;
+    }
+
+    boolean canEnPassantAt(int square) {
+        return square == enPassantSquare;
+    }
+
+    /**
+     * Narrows the castling rights to what the move history allows and restores the en passant
+     * square from the last move, so boards saved before the board kept this state come back
+     * with it.
+     */
+    void restoreStateFromHistory() {
+        for (var move : pastMoves) {
+            castlingRights &= CASTLING_RIGHTS_KEPT[squareOf(move.getStartPosition())] &
+                              CASTLING_RIGHTS_KEPT[squareOf(move.getEndPosition())];
         }
-        if (lastMove.getStartPosition().getColumn() != targetPos.getColumn() ||
-            lastMove.getEndPosition().getColumn() != targetPos.getColumn()) {
-            return false;
+        if (enPassantSquare != NO_SQUARE || pastMoves.isEmpty()) {
+            return;
         }
-        int yDist = Math.abs(
-                lastMove.getStartPosition().getRow() - lastMove.getEndPosition().getRow());
-        if (yDist < 2) {
-            return false;
+        var lastMove = pastMoves.getLast();
+        int start = squareOf(lastMove.getStartPosition());
+        int end = squareOf(lastMove.getEndPosition());
+        var piece = pieceAt(end);
+        if (piece != null && piece.getPieceType() == ChessPiece.PieceType.PAWN &&
+            Math.abs(end - start) == 16 &&
+            (pieceBitboards[pieceIndex(ChessGame.otherTeam(piece.getTeamColor()),
+                    ChessPiece.PieceType.PAWN)] & adjacentFiles(end)) != 0) {
+            enPassantSquare = (start + end) / 2;
         }
-        int skippedRow =
-                (lastMove.getStartPosition().getRow() + lastMove.getEndPosition().getRow()) / 2;
-        return targetPos.getRow() == skippedRow;
     }
 }
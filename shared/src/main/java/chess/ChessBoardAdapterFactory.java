@@ -0,0 +1,69 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Serializes a {@link ChessBoard} with Gson's usual reflective adapter, then rebuilds the
+ * transient bitboards and Zobrist key once the {@code board} array has been read back in, and
+ * fills in castling and en passant state for boards saved without it.
+ * <p>
+ * The keys of the positions since the last capture or pawn move are written alongside the
+ * board's fields as {@code recentKeys}, so repetitions are still counted after a round trip.
+ */
+class ChessBoardAdapterFactory implements TypeAdapterFactory {
+    private static final String RECENT_KEYS = "recentKeys";
+
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+        TypeAdapter<JsonElement> elements = gson.getAdapter(JsonElement.class);
+        return new TypeAdapter<>() {
+            @Override
+            public void write(JsonWriter out, T value) throws IOException {
+                if (!(value instanceof ChessBoard board)) {
+                    delegate.write(out, value);
+                    return;
+                }
+                var json = delegate.toJsonTree(value).getAsJsonObject();
+                var keys = new JsonArray();
+                for (long key : board.getRecentKeys()) {
+                    keys.add(key);
+                }
+                json.add(RECENT_KEYS, keys);
+                elements.write(out, json);
+            }
+
+            @Override
+            public T read(JsonReader in) throws IOException {
+                var json = elements.read(in);
+                JsonElement keys = null;
+                if (json != null && json.isJsonObject()) {
+                    keys = json.getAsJsonObject().remove(RECENT_KEYS);
+                }
+                T value = delegate.fromJsonTree(json);
+                if (value instanceof ChessBoard board) {
+                    board.rebuildBitboards();
+                    board.restoreStateFromHistory();
+                    if (keys != null && keys.isJsonArray()) {
+                        var array = keys.getAsJsonArray();
+                        var recentKeys = new long[array.size()];
+                        for (int i = 0; i < recentKeys.length; i++) {
+                            recentKeys[i] = array.get(i).getAsLong();
+                        }
+                        board.setRecentKeys(recentKeys);
+                    }
+                }
+                return value;
+            }
+        };
+    }
+}
@@ -10,15 +10,56 @@ import java.util.*;
  */
 public class ChessGame {
 
+    /**
+     * The usual starting position in Forsyth-Edwards Notation
+     */
+    public static final String START_FEN = Fen.START;
+
     private TeamColor currentTurn = TeamColor.WHITE;
     private ChessBoard board = new ChessBoard();
     private boolean gameOver = false;
     private GameState gameState = GameState.NONE;
+    private int fullmoveNumber = 1;
+    /**
+     * The position the board's move history starts from in FEN, or null for the usual start
+     */
+    private String startFen;
 
     public ChessGame() {
         board.resetBoard();
     }
 
+    /**
+     * Sets up a game from a position in Forsyth-Edwards Notation, such as
+     * "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1". The halfmove clock and
+     * fullmove number may be left off. The game starts from the position with no earlier moves,
+     * so only positions reached after it count towards a repetition.
+     *
+     * @param fen the position
+     * @return a game in that position, already over if it is checkmate or a draw
+     * @throws IllegalArgumentException if the text is not a legal position in FEN
+     */
+    public static ChessGame fromFen(String fen) {
+        var game = Fen.read(fen);
+        game.setStartFen(game.toFen());
+        return game;
+    }
+
+    /**
+     * @return the position the board's move history starts from in Forsyth-Edwards Notation:
+     * the one the game was set up from with {@link #fromFen}, or else the usual starting position
+     */
+    public String getStartFen() {
+        return startFen == null ? START_FEN : startFen;
+    }
+
+    /**
+     * @return the current position in Forsyth-Edwards Notation, with both clocks
+     */
+    public String toFen() {
+        return Fen.write(this);
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -51,7 +92,8 @@ public class ChessGame {
     }
 
     public enum GameState {
-        CHECK, CHECKMATE, STALEMATE, NONE
+        CHECK, CHECKMATE, STALEMATE, INSUFFICIENT_MATERIAL, THREEFOLD_REPETITION, FIFTY_MOVE_RULE,
+        ADJUDICATED_WHITE_WIN, ADJUDICATED_BLACK_WIN, ADJUDICATED_DRAW, NONE
     }
 
     public static TeamColor otherTeam(TeamColor team) {
@@ -66,35 +108,43 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        var moves = board.validMoves(startPosition);
         var piece = board.getPiece(startPosition);
-        if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING &&
-            board.neverMovedFrom(startPosition)) {
-            var color = piece.getTeamColor();
-            var attackedByOpponent = board.getAttackedBy(otherTeam(color));
-            var kingX = startPosition.getColumn();
-            var kingY = startPosition.getRow();
-            HashSet<ChessPosition> castleCandidates = board.getCastleCandidates(color);
-            for (var rookPosition : castleCandidates) {
-                var rookX = rookPosition.getColumn();
-                var direction = Integer.signum(rookX - kingX);
-                var canCastle = true;
-                for (int x = kingX; Math.abs(x - rookX) > 0; x += direction) {
-                    var position = new ChessPosition(kingY, x);
-                    if ((board.getPiece(position) != null && !(x == kingX)) ||
-                        attackedByOpponent.contains(position)) {
-                        canCastle = false;
-                        break;
-                    }
-                }
-                if (canCastle) {
-                    var newPosition = new ChessPosition(kingY, kingX + direction * 2);
-                    var move = new ChessMove(startPosition, newPosition, null);
-                    moves.add(move);
-                }
+        if (piece == null) {
+            return null;
+        }
+        int square = ChessBoard.squareOf(startPosition);
+        var moves = new HashSet<ChessMove>();
+        for (int move : legalMoves(piece.getTeamColor())) {
+            if (Move.from(move) == square) {
+                moves.add(Move.toChessMove(move));
             }
         }
+        return moves;
+    }
+
+    /**
+     * Gets every legal move for a team, castling included
+     *
+     * @param teamColor the team to get valid moves for
+     * @return Set of valid moves for every piece of that team
+     */
+    public Collection<ChessMove> validMoves(TeamColor teamColor) {
+        var moves = new HashSet<ChessMove>();
+        for (int move : legalMoves(teamColor)) {
+            moves.add(Move.toChessMove(move));
+        }
+        return moves;
+    }
 
+    private int[] legalMoves(TeamColor teamColor) {
+        long key = board.getZobristKey() ^ Zobrist.sideToMove(teamColor);
+        var moves = LegalMoveCache.SHARED.get(key);
+        if (moves == null) {
+            var moveList = new MoveList();
+            board.generateLegalMoves(teamColor, moveList);
+            moves = moveList.toArray();
+            LegalMoveCache.SHARED.put(key, moves);
+        }
         return moves;
     }
 
@@ -106,7 +156,6 @@ public class ChessGame {
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
         var startPosition = move.getStartPosition();
-        var endPosition = move.getEndPosition();
         var targetPiece = board.getPiece(startPosition);
         if (targetPiece == null) {
             throw new InvalidMoveException("No piece at " + startPosition);
@@ -122,33 +171,22 @@ public class ChessGame {
         }
         board.makeMove(move);
 
-
-        if (targetPiece.getPieceType() == ChessPiece.PieceType.KING) {
-            var kingRow = startPosition.getRow();
-            var startX = startPosition.getColumn();
-            var endX = endPosition.getColumn();
-            var displacement = startX - endX;
-            if (Math.abs(displacement) == 2) {
-                var rookCol = displacement > 0 ? 1 : 8;
-                var newRookCol = displacement > 0 ? 4 : 6;
-                var rookPosition = new ChessPosition(kingRow, rookCol);
-                var newRookPosition = new ChessPosition(kingRow, newRookCol);
-                var rookMove = new ChessMove(rookPosition, newRookPosition, null);
-                board.makeMove(rookMove);
-            }
+        if (currentTurn == TeamColor.BLACK) {
+            fullmoveNumber++;
         }
-
         currentTurn = otherTeam(currentTurn);
-        if (isInCheckmate(currentTurn)) {
-            gameState = GameState.CHECKMATE;
-        } else if (isInStalemate(currentTurn)) {
-            gameState = GameState.STALEMATE;
-        } else if (isInCheck(currentTurn)) {
-            gameState = GameState.CHECK;
-        } else {
-            gameState = GameState.NONE;
+        updateState();
+    }
+
+    /**
+     * Works out the state of the game for the team to move, ending the game if it is over
+     */
+    void updateState() {
+        gameState = evaluateState(currentTurn);
+        if (gameState == GameState.CHECK || gameState == GameState.NONE) {
+            gameState = evaluateDraw(gameState);
         }
-        if (gameState == GameState.CHECKMATE || gameState == GameState.STALEMATE) {
+        if (gameState != GameState.CHECK && gameState != GameState.NONE) {
             endGame();
         }
     }
@@ -188,7 +226,7 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        return board.isInCheck(teamColor) && board.validMoves(teamColor).isEmpty();
+        return evaluateState(teamColor) == GameState.CHECKMATE;
     }
 
     /**
@@ -199,7 +237,52 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        return !board.isInCheck(teamColor) && board.validMoves(teamColor).isEmpty();
+        return evaluateState(teamColor) == GameState.STALEMATE;
+    }
+
+    /**
+     * Works out whether a team is in check, checkmate or stalemate with one check test and one
+     * search for a legal move, which stops at the first move found.
+     *
+     * @param teamColor which team to evaluate
+     * @return the state of the game for that team
+     */
+    private GameState evaluateState(TeamColor teamColor) {
+        boolean inCheck = board.isInCheck(teamColor);
+        if (hasLegalMove(teamColor)) {
+            return inCheck ? GameState.CHECK : GameState.NONE;
+        }
+        return inCheck ? GameState.CHECKMATE : GameState.STALEMATE;
+    }
+
+    /**
+     * Draws the game when neither side can checkmate any more, when the current position has now
+     * occurred three times, or when fifty moves by each side have passed without a capture or
+     * pawn move
+     *
+     * @param gameState the state of the game if it is not drawn
+     * @return the rule the game is drawn by, or gameState
+     */
+    private GameState evaluateDraw(GameState gameState) {
+        if (board.hasInsufficientMaterial()) {
+            return GameState.INSUFFICIENT_MATERIAL;
+        }
+        if (board.getHalfmoveClock() >= 4 && board.repetitionCount() >= 3) {
+            return GameState.THREEFOLD_REPETITION;
+        }
+        if (board.getHalfmoveClock() >= 100) {
+            return GameState.FIFTY_MOVE_RULE;
+        }
+        return gameState;
+    }
+
+    private boolean hasLegalMove(TeamColor teamColor) {
+        var cached = LegalMoveCache.SHARED.get(board.getZobristKey() ^
+                                               Zobrist.sideToMove(teamColor));
+        if (cached != null) {
+            return cached.length > 0;
+        }
+        return board.hasLegalMove(teamColor);
     }
 
     /**
@@ -218,6 +301,20 @@ public class ChessGame {
         gameOver = true;
     }
 
+    /**
+     * Ends the game with a result decided without playing it out, such as from a tablebase
+     *
+     * @param winner the team that wins, or null for a draw
+     */
+    public void adjudicate(TeamColor winner) {
+        gameState = switch (winner) {
+            case WHITE -> GameState.ADJUDICATED_WHITE_WIN;
+            case BLACK -> GameState.ADJUDICATED_BLACK_WIN;
+            case null -> GameState.ADJUDICATED_DRAW;
+        };
+        endGame();
+    }
+
 
     /**
      * Sets this game's chessboard with a given board
@@ -242,6 +339,30 @@ public class ChessGame {
         return gameState;
     }
 
+    /**
+     * @return the number of the current move, which starts at 1 and goes up after each of
+     * Black's moves
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    void setFullmoveNumber(int fullmoveNumber) {
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    void setStartFen(String startFen) {
+        this.startFen = startFen == null || startFen.equals(START_FEN) ? null : startFen;
+    }
+
+    /**
+     * Puts back a state read from storage, without working it out from the board again
+     */
+    void restoreState(GameState gameState, boolean gameOver) {
+        this.gameState = gameState;
+        this.gameOver = gameOver;
+    }
+
 
     @Override
     public boolean equals(Object o) {
@@ -254,6 +375,14 @@ public class ChessGame {
 
     @Override
     public int hashCode() {
-        return Objects.hash(currentTurn, board);
+        return Long.hashCode(board.getPieceKey() ^ Zobrist.sideToMove(currentTurn));
+    }
+
+    /**
+     * @return Zobrist key of the current position: pieces, castling rights, en passant file and
+     * side to move
+     */
+    public long getZobristKey() {
+        return board.getZobristKey() ^ Zobrist.sideToMove(currentTurn);
     }
 }
@@ -0,0 +1,244 @@
+package chess;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * A compact binary form of a {@link ChessGame}, for storage where Gson's JSON, with its grid of
+ * piece objects and list of move objects, is far bigger than the game needs.
+ * <p>
+ * Version 2 is, in order: the version byte; a flags byte (bit 0 Black to move, bit 1 game over,
+ * bit 2 a start position follows at the end); the game state's {@link #stateCode code}; the
+ * castling rights; the en passant square plus one, or 0 for none; the halfmove clock and
+ * fullmove number; an occupancy bitboard followed by a half byte per occupied square, from a1
+ * up, holding the piece's {@link ChessBoard#pieceIndex index}; the move history as two bytes per
+ * {@link Move packed move}; and, if flagged, the start position in FEN. Clocks and counts are
+ * unsigned variable-length integers of seven bits a byte, low bits first, and the bitboard and
+ * moves are big-endian. A game at move 40 takes under 200 bytes, against several kilobytes as
+ * JSON.
+ * <p>
+ * The current position is stored rather than replayed from the moves, so games whose board was
+ * set up piece by piece come back exactly. The Zobrist keys that repetitions are counted from
+ * are not stored, since they depend on {@link Zobrist}'s table; they are rebuilt by replaying
+ * the history from the start position, or left empty if it does not lead to the stored one.
+ * Version 1, which stored the state's ordinal and the keys themselves, is still read.
+ */
+public final class ChessGameCodec {
+    public static final int VERSION = 2;
+    private static final int VERSION_WITH_KEYS = 1;
+
+    private static final int BLACK_TO_MOVE = 1;
+    private static final int GAME_OVER = 2;
+    private static final int HAS_START_FEN = 4;
+    /**
+     * Game states by their code; version 1's ordinals are the same
+     */
+    private static final ChessGame.GameState[] STATES = {ChessGame.GameState.CHECK,
+            ChessGame.GameState.CHECKMATE, ChessGame.GameState.STALEMATE,
+            ChessGame.GameState.INSUFFICIENT_MATERIAL, ChessGame.GameState.THREEFOLD_REPETITION,
+            ChessGame.GameState.FIFTY_MOVE_RULE, ChessGame.GameState.ADJUDICATED_WHITE_WIN,
+            ChessGame.GameState.ADJUDICATED_BLACK_WIN, ChessGame.GameState.ADJUDICATED_DRAW,
+            ChessGame.GameState.NONE};
+
+    private ChessGameCodec() {
+    }
+
+    /**
+     * @param game the game to encode
+     * @return the game in the current version of the format
+     */
+    public static byte[] encode(ChessGame game) {
+        var board = game.getBoard();
+        var history = board.getMoveHistory();
+        var bytes = new ByteArrayOutputStream(48 + 2 * history.size());
+        try (var out = new DataOutputStream(bytes)) {
+            var startFen = game.getStartFen();
+            boolean hasStartFen = !startFen.equals(ChessGame.START_FEN);
+            out.writeByte(VERSION);
+            out.writeByte((game.getTeamTurn() == ChessGame.TeamColor.BLACK ? BLACK_TO_MOVE : 0) |
+                          (game.isOver() ? GAME_OVER : 0) | (hasStartFen ? HAS_START_FEN : 0));
+            out.writeByte(stateCode(game.getGameState()));
+            out.writeByte(board.getCastlingRights());
+            out.writeByte(board.getEnPassantSquare() + 1);
+            writeVarint(out, board.getHalfmoveClock());
+            writeVarint(out, game.getFullmoveNumber());
+            out.writeLong(board.getOccupancy());
+            int pending = -1;
+            for (long occupied = board.getOccupancy(); occupied != 0; occupied &= occupied - 1) {
+                var piece = board.pieceAt(Long.numberOfTrailingZeros(occupied));
+                int index = ChessBoard.pieceIndex(piece.getTeamColor(), piece.getPieceType());
+                if (pending < 0) {
+                    pending = index;
+                } else {
+                    out.writeByte(pending << 4 | index);
+                    pending = -1;
+                }
+            }
+            if (pending >= 0) {
+                out.writeByte(pending << 4);
+            }
+            writeVarint(out, history.size());
+            for (var move : history) {
+                out.writeShort(Move.fromChessMove(move));
+            }
+            if (hasStartFen) {
+                var fen = startFen.getBytes(StandardCharsets.US_ASCII);
+                writeVarint(out, fen.length);
+                out.write(fen);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param bytes a game written by {@link #encode}
+     * @return the game
+     * @throws IllegalArgumentException if the bytes are not a game in a version this reads
+     */
+    public static ChessGame decode(byte[] bytes) {
+        var in = ByteBuffer.wrap(bytes);
+        try {
+            int version = in.get() & 0xFF;
+            if (version != VERSION && version != VERSION_WITH_KEYS) {
+                throw new IllegalArgumentException("Unsupported game format version " + version);
+            }
+            int flags = in.get();
+            int state = in.get();
+            if (state < 0 || state >= STATES.length) {
+                throw new IllegalArgumentException("No game state " + state);
+            }
+            var board = new ChessBoard();
+            board.setCastlingRights(in.get());
+            int enPassantSquare = (in.get() & 0xFF) - 1;
+            board.setHalfmoveClock(readVarint(in));
+            int fullmoveNumber = readVarint(in);
+            long occupancy = in.getLong();
+            int packed = 0;
+            for (int i = 0; occupancy != 0; i++, occupancy &= occupancy - 1) {
+                if (i % 2 == 0) {
+                    packed = in.get() & 0xFF;
+                }
+                int index = i % 2 == 0 ? packed >>> 4 : packed & 0xF;
+                if (index >= 12) {
+                    throw new IllegalArgumentException("No piece " + index);
+                }
+                board.addPiece(ChessPosition.ofSquare(Long.numberOfTrailingZeros(occupancy)),
+                        ChessPiece.ofIndex(index));
+            }
+            if (enPassantSquare >= 0 && enPassantSquare < 64) {
+                board.setEnPassantSquare(enPassantSquare);
+            }
+            int moveCount = readCount(in, 2);
+            var history = new ArrayList<ChessMove>(moveCount);
+            for (int i = 0; i < moveCount; i++) {
+                history.add(Move.toChessMove(in.getShort() & 0xFFFF));
+            }
+            board.setMoveHistory(history);
+            if (version == VERSION_WITH_KEYS) {
+                int keyCount = readCount(in, 8);
+                in.position(in.position() + 8 * keyCount);
+            }
+
+            var game = new ChessGame();
+            game.setBoard(board);
+            game.setTeamTurn((flags & BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK :
+                    ChessGame.TeamColor.WHITE);
+            game.setFullmoveNumber(fullmoveNumber);
+            game.restoreState(STATES[state], (flags & GAME_OVER) != 0);
+            if ((flags & HAS_START_FEN) != 0) {
+                var fen = new byte[readCount(in, 1)];
+                in.get(fen);
+                game.setStartFen(new String(fen, StandardCharsets.US_ASCII));
+            }
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException("Not a game in version " + version);
+            }
+            restoreRecentKeys(game);
+            return game;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Game data is cut short", e);
+        }
+    }
+
+    /**
+     * @return the state's code, which stays the same when states are added to the enum
+     */
+    private static int stateCode(ChessGame.GameState state) {
+        return switch (state) {
+            case CHECK -> 0;
+            case CHECKMATE -> 1;
+            case STALEMATE -> 2;
+            case INSUFFICIENT_MATERIAL -> 3;
+            case THREEFOLD_REPETITION -> 4;
+            case FIFTY_MOVE_RULE -> 5;
+            case ADJUDICATED_WHITE_WIN -> 6;
+            case ADJUDICATED_BLACK_WIN -> 7;
+            case ADJUDICATED_DRAW -> 8;
+            case NONE -> 9;
+        };
+    }
+
+    /**
+     * Gives a decoded game the keys of its positions since the last capture or pawn move, by
+     * playing its moves from the start position. A game whose moves do not lead from there to
+     * its board, such as one set up piece by piece, counts repetitions from now on only.
+     */
+    private static void restoreRecentKeys(ChessGame game) {
+        var board = game.getBoard();
+        ChessBoard replay;
+        try {
+            replay = Fen.read(game.getStartFen()).getBoard();
+            for (var move : board.getMoveHistory()) {
+                replay.makeMove(Move.fromChessMove(move));
+            }
+        } catch (RuntimeException e) {
+            return;
+        }
+        if (replay.getZobristKey() == board.getZobristKey() &&
+            replay.getHalfmoveClock() == board.getHalfmoveClock()) {
+            board.setRecentKeys(replay.getRecentKeys());
+        }
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed number");
+    }
+
+    /**
+     * Reads how many items follow, checking there are bytes enough left for them
+     */
+    private static int readCount(ByteBuffer in, int bytesEach) {
+        int count = readVarint(in);
+        if ((long) count * bytesEach > in.remaining()) {
+            throw new IllegalArgumentException("Game data is cut short");
+        }
+        return count;
+    }
+}
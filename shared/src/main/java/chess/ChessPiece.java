@@ -2,7 +2,6 @@ package chess;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Objects;
 
 /**
@@ -15,6 +14,16 @@ public class ChessPiece {
     private final ChessGame.TeamColor color;
     private final PieceType type;
 
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (var color : ChessGame.TeamColor.values()) {
+            for (var type : PieceType.values()) {
+                PIECES[color.ordinal() * 6 + type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     public ChessPiece(ChessGame.TeamColor pieceColor, PieceType type) {
         color = pieceColor;
         this.type = type;
@@ -25,19 +34,39 @@ public class ChessPiece {
         type = chessPiece.type;
     }
 
+    /**
+     * Gets the shared instance of a piece. Pieces never change, so the engine hands these out
+     * instead of allocating new ones.
+     *
+     * @param color which team the piece belongs to
+     * @param type  which type of piece it is
+     * @return the piece of that color and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor color, PieceType type) {
+        return PIECES[color.ordinal() * 6 + type.ordinal()];
+    }
+
+    /**
+     * @param index color ordinal * 6 + type ordinal, as in {@link ChessBoard#pieceIndex}
+     */
+    static ChessPiece ofIndex(int index) {
+        return PIECES[index];
+    }
+
     public boolean is(ChessGame.TeamColor teamColor, PieceType pieceType) {
         return teamColor == color && pieceType == type;
     }
 
     public Collection<ChessMove> pieceAttacks(ChessBoard board, ChessPosition myPosition) {
-        return switch (type) {
-            case KING -> getKingMoves(board, myPosition);
-            case QUEEN -> getQueenMoves(board, myPosition);
-            case BISHOP -> getBishopMoves(board, myPosition);
-            case KNIGHT -> getKnightMoves(board, myPosition);
-            case ROOK -> getRookMoves(board, myPosition);
-            case PAWN -> getPawnMoves(board, myPosition, false);
-        };
+        int square = ChessBoard.squareOf(myPosition);
+        var moves = new ArrayList<ChessMove>();
+        long attacks = attacks(board, square) & ~board.getOccupancy(color);
+        while (attacks != 0) {
+            moves.add(new ChessMove(myPosition,
+                    ChessBoard.positionOf(Long.numberOfTrailingZeros(attacks)), null));
+            attacks &= attacks - 1;
+        }
+        return moves;
     }
 
     public char getChar() {
@@ -84,162 +113,87 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-
-        return switch (type) {
-            case KING -> getKingMoves(board, myPosition);
-            case QUEEN -> getQueenMoves(board, myPosition);
-            case BISHOP -> getBishopMoves(board, myPosition);
-            case KNIGHT -> getKnightMoves(board, myPosition);
-            case ROOK -> getRookMoves(board, myPosition);
-            case PAWN -> getPawnMoves(board, myPosition, true);
-        };
+        var moves = new MoveList(32);
+        addMoves(board, ChessBoard.squareOf(myPosition), moves);
+        return moves.toChessMoves();
     }
 
-    private ArrayList<ChessPosition> getMoveWidgetPositions(ChessBoard board,
-                                                            ChessPosition myPosition,
-                                                            int[][] moveWidgets, int moveDistance
-            , boolean allowMoves, boolean allowCaptures) {
-        ArrayList<ChessPosition> positions = new ArrayList<>();
-        int row = myPosition.getRow();
-        int col = myPosition.getColumn();
-        for (int[] widget : moveWidgets) {
-            int rowMove = widget[0];
-            int colMove = widget[1];
-            for (int dist = 1; dist <= moveDistance; dist++) {
-                int newRow = row + rowMove * dist;
-                int newCol = col + colMove * dist;
-                var targetPos = new ChessPosition(newRow, newCol);
-                if (!board.positionValid(targetPos)) {
-                    continue;
-                }
-                var targetPiece = board.getPiece(targetPos);
-                if (targetPiece == null) {
-                    if (allowMoves) {
-                        positions.add(targetPos);
-                    }
-                    if (board.canEnPassantAt(targetPos) && type == PieceType.PAWN &&
-                        allowCaptures) {
-                        positions.add(targetPos);
-                    }
-                } else {
-                    if (targetPiece.color != this.color && allowCaptures) {
-                        positions.add(targetPos);
-                    }
-                    break;
-                }
-            }
+    private static final PieceType[] PROMOTION_TYPES = {PieceType.BISHOP, PieceType.ROOK,
+            PieceType.KNIGHT, PieceType.QUEEN};
 
+    /**
+     * Adds the packed moves this piece could make from a square to a list, like
+     * {@link #pieceMoves} but without building a {@link ChessMove} for each
+     *
+     * @param square the square the piece stands on, numbered as on {@link ChessBoard}
+     */
+    void addMoves(ChessBoard board, int square, MoveList moves) {
+        if (type == PieceType.PAWN) {
+            addPawnMoves(board, square, moves);
+            return;
         }
-        return positions;
-    }
-
-    private HashSet<ChessMove> getPawnMoves(ChessBoard board, ChessPosition myPosition,
-                                            boolean getMoves) {
-
-        int yDirection = 0;
-        int doubleStepRow = 0;
-        int promotionRow = 0;
-
-
-        switch (this.color) {
-            case WHITE -> {
-                yDirection = 1;
-                doubleStepRow = 2;
-                promotionRow = 7;
-            }
-            case BLACK -> {
-                yDirection = -1;
-                doubleStepRow = 7;
-                promotionRow = 2;
-            }
+        long targets = attacks(board, square) & ~board.getOccupancy(color);
+        while (targets != 0) {
+            moves.add(Move.of(square, Long.numberOfTrailingZeros(targets)));
+            targets &= targets - 1;
         }
+    }
 
-        int row = myPosition.getRow();
-        HashSet<ChessMove> moves = new HashSet<>();
-        int[][] moveWidgets = {{yDirection, 0}};
-        int[][] moveWidgets2 = {{yDirection, 1}, {yDirection, -1}};
-        int moveDistance = row == doubleStepRow ? 2 : 1;
+    /**
+     * @param square the square the piece stands on
+     * @return bitboard of every square this piece attacks from there, whether it is empty or
+     * holds a piece of either color
+     */
+    long attacks(ChessBoard board, int square) {
+        return Attacks.of(type, color, square, board.getOccupancy());
+    }
 
-        var positions = getMoveWidgetPositions(board, myPosition, moveWidgets, moveDistance, true
-                , false);
-        var attacks = getMoveWidgetPositions(board, myPosition, moveWidgets2, moveDistance, false
-                , true);
-        if (getMoves) {
-            positions.addAll(attacks);
-        } else {
-            positions = attacks;
+    private void addPawnMoves(ChessBoard board, int square, MoveList moves) {
+        boolean white = color == ChessGame.TeamColor.WHITE;
+        int rank = square >>> 3;
+        if (rank == (white ? 7 : 0)) {
+            return;
         }
-        PieceType[] promotionPieces = {PieceType.BISHOP, PieceType.ROOK, PieceType.KNIGHT,
-                PieceType.QUEEN};
-        for (var targetPos : positions) {
-            if (row == promotionRow) {
-                for (var piece : promotionPieces) {
-                    moves.add(new ChessMove(myPosition, targetPos, piece));
-                }
-            } else {
-                moves.add(new ChessMove(myPosition, targetPos, null));
+        int forward = white ? 8 : -8;
+        boolean promotes = rank == (white ? 6 : 1);
+        long occupied = board.getOccupancy();
+        int oneStep = square + forward;
+        if ((occupied & 1L << oneStep) == 0) {
+            addPawnMove(square, oneStep, promotes, moves);
+            int twoSteps = oneStep + forward;
+            if (rank == (white ? 1 : 6) && (occupied & 1L << twoSteps) == 0) {
+                moves.add(Move.of(square, twoSteps));
             }
         }
-
-
-        return moves;
-    }
-
-    private HashSet<ChessMove> getKnightMoves(ChessBoard board, ChessPosition myPosition) {
-        HashSet<ChessMove> moves = new HashSet<>();
-        int[][] moveWidgets = {{1, 2}, {2, 1}, {1, -2}, {2, -1}, {-1, 2}, {-2, 1}, {-1, -2}, {-2,
-                -1},};
-        var positions = getMoveWidgetPositions(board, myPosition, moveWidgets, 1, true, true);
-
-        for (var targetPos : positions) {
-            moves.add(new ChessMove(myPosition, targetPos, null));
+        long attacks = Attacks.pawn(color, square);
+        long targets = attacks & board.getOccupancy(ChessGame.otherTeam(color));
+        while (targets != 0) {
+            addPawnMove(square, Long.numberOfTrailingZeros(targets), promotes, moves);
+            targets &= targets - 1;
         }
-
-        return moves;
-    }
-
-    private HashSet<ChessMove> getQueenMoves(ChessBoard board, ChessPosition myPosition) {
-        HashSet<ChessMove> moves = getBishopMoves(board, myPosition);
-        moves.addAll(getRookMoves(board, myPosition));
-        return moves;
-    }
-
-    private HashSet<ChessMove> getRookMoves(ChessBoard board, ChessPosition myPosition) {
-        HashSet<ChessMove> moves = new HashSet<>();
-        int[][] moveWidgets = {{0, 1}, {0, -1}, {1, 0}, {-1, 0}};
-        var positions = getMoveWidgetPositions(board, myPosition, moveWidgets, 7, true, true);
-
-        for (var targetPos : positions) {
-            moves.add(new ChessMove(myPosition, targetPos, null));
+        long empty = attacks & ~occupied;
+        while (empty != 0) {
+            int target = Long.numberOfTrailingZeros(empty);
+            empty &= empty - 1;
+            if (board.canEnPassantAt(target)) {
+                moves.add(Move.of(square, target));
+            }
         }
-        return moves;
     }
 
-    private HashSet<ChessMove> getBishopMoves(ChessBoard board, ChessPosition myPosition) {
-        HashSet<ChessMove> moves = new HashSet<>();
-        int[][] moveWidgets = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
-        var positions = getMoveWidgetPositions(board, myPosition, moveWidgets, 7, true, true);
-
-        for (var targetPos : positions) {
-            moves.add(new ChessMove(myPosition, targetPos, null));
+    /**
+     * Adds a pawn move, or one move per promotion piece if the pawn reaches the last rank
+     */
+    static void addPawnMove(int from, int to, boolean promotes, MoveList moves) {
+        if (!promotes) {
+            moves.add(Move.of(from, to));
+            return;
         }
-        return moves;
-    }
-
-    private HashSet<ChessMove> getKingMoves(ChessBoard board, ChessPosition myPosition) {
-        HashSet<ChessMove> moves = new HashSet<>();
-        int[][] moveWidgets = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}, {0, 1}, {0, -1}, {1, 0}, {-1,
-                0}};
-        var positions = getMoveWidgetPositions(board, myPosition, moveWidgets, 1, true, true);
-
-        for (var targetPos : positions) {
-            moves.add(new ChessMove(myPosition, targetPos, null));
+        for (var promotion : PROMOTION_TYPES) {
+            moves.add(Move.of(from, to, promotion));
         }
-
-        return moves;
     }
 
-
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
@@ -1,7 +1,5 @@
 package chess;
 
-import java.util.Objects;
-
 /**
  * Represents a single square position on a chess board
  * <p>
@@ -13,11 +11,42 @@ public class ChessPosition {
     private final int row;
     private final int col;
 
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new ChessPosition((square >>> 3) + 1, (square & 7) + 1);
+        }
+    }
+
     public ChessPosition(int row, int col) {
         this.row = row;
         this.col = col;
     }
 
+    /**
+     * Gets the shared instance for a position on the board. Positions never change, so the
+     * engine hands these out instead of allocating new ones.
+     *
+     * @param row    1-8, 1 coding for the bottom row
+     * @param column 1-8, 1 coding for the left column
+     * @return the position at that row and column
+     * @throws IllegalArgumentException if the position is off the board
+     */
+    public static ChessPosition of(int row, int column) {
+        if (row < 1 || row > 8 || column < 1 || column > 8) {
+            throw new IllegalArgumentException("No square at row " + row + ", column " + column);
+        }
+        return SQUARES[(row - 1) * 8 + column - 1];
+    }
+
+    /**
+     * @param square 0 (a1) to 63 (h8), numbered as on {@link ChessBoard}
+     */
+    static ChessPosition ofSquare(int square) {
+        return SQUARES[square];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -45,7 +74,7 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        return 31 * row + col;
     }
 
     @Override
@@ -0,0 +1,264 @@
+package chess;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation: the pieces rank by rank from the
+ * eighth, the side to move, castling rights, the en passant target square, the halfmove clock
+ * and the fullmove number, separated by spaces.
+ * <p>
+ * Both directions work a character at a time, without splitting the text or matching patterns,
+ * so reading a position allocates only the board and game it fills in and writing one only the
+ * string it returns.
+ */
+final class Fen {
+    static final String START =
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    /**
+     * Piece letters in the order of {@link ChessPiece.PieceType}
+     */
+    private static final String PIECE_CHARS = "kqbnrp";
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+    private static final String CASTLING_CHARS = "KQkq";
+    private static final int[] CASTLING_FLAGS = {ChessBoard.WHITE_KINGSIDE,
+            ChessBoard.WHITE_QUEENSIDE, ChessBoard.BLACK_KINGSIDE, ChessBoard.BLACK_QUEENSIDE};
+
+    private Fen() {
+    }
+
+    /**
+     * @param fen a position; the clocks may be left off, and then count from 0 and 1
+     * @return a game in the position, with no earlier moves
+     * @throws IllegalArgumentException if the text is not a legal position in FEN
+     */
+    static ChessGame read(String fen) {
+        var board = new ChessBoard();
+        int i = readPieces(fen, board);
+        i = expect(fen, i, ' ');
+        if (i >= fen.length()) {
+            throw error(fen, "missing side to move");
+        }
+        var turn = switch (fen.charAt(i++)) {
+            case 'w' -> ChessGame.TeamColor.WHITE;
+            case 'b' -> ChessGame.TeamColor.BLACK;
+            default -> throw error(fen, "side to move must be 'w' or 'b'");
+        };
+        i = expect(fen, i, ' ');
+        i = readCastling(fen, i, board);
+        i = expect(fen, i, ' ');
+        i = readEnPassant(fen, i, board, turn);
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        if (i < fen.length()) {
+            i = expect(fen, i, ' ');
+            int end = fieldEnd(fen, i);
+            halfmoveClock = readNumber(fen, i, end);
+            i = expect(fen, end, ' ');
+            end = fieldEnd(fen, i);
+            fullmoveNumber = readNumber(fen, i, end);
+            if (end != fen.length()) {
+                throw error(fen, "unexpected text after the fullmove number");
+            }
+            if (fullmoveNumber < 1) {
+                throw error(fen, "the fullmove number starts at 1");
+            }
+        }
+        board.setHalfmoveClock(halfmoveClock);
+        if (board.isInCheck(ChessGame.otherTeam(turn))) {
+            throw error(fen, "the side not to move is in check");
+        }
+        var game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(turn);
+        game.setFullmoveNumber(fullmoveNumber);
+        game.updateState();
+        return game;
+    }
+
+    /**
+     * @return the game's position in FEN
+     */
+    static String write(ChessGame game) {
+        var board = game.getBoard();
+        var fen = new StringBuilder(90);
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                var piece = board.pieceAt(rank * 8 + file);
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                fen.append(piece.getChar());
+            }
+            if (empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if (rank > 0) {
+                fen.append('/');
+            }
+        }
+        fen.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+        int rights = board.getCastlingRights();
+        if (rights == 0) {
+            fen.append('-');
+        }
+        for (int i = 0; i < CASTLING_FLAGS.length; i++) {
+            if ((rights & CASTLING_FLAGS[i]) != 0) {
+                fen.append(CASTLING_CHARS.charAt(i));
+            }
+        }
+        fen.append(' ');
+        int enPassant = board.getEnPassantSquare();
+        if (enPassant == ChessBoard.NO_SQUARE) {
+            fen.append('-');
+        } else {
+            fen.append((char) ('a' + enPassant % 8)).append((char) ('1' + enPassant / 8));
+        }
+        return fen.append(' ').append(board.getHalfmoveClock())
+                .append(' ').append(game.getFullmoveNumber()).toString();
+    }
+
+    /**
+     * Places the pieces of the first field on the board, checking there is one king a side and
+     * no pawn on the first or last rank
+     *
+     * @return index just past the field
+     */
+    private static int readPieces(String fen, ChessBoard board) {
+        int i = 0;
+        int rank = 7;
+        int file = 0;
+        for (; i < fen.length() && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (file != 8 || rank == 0) {
+                    throw error(fen, "each of the eight ranks needs eight squares");
+                }
+                rank--;
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+                if (file > 8) {
+                    throw error(fen, "rank " + (rank + 1) + " has more than eight squares");
+                }
+            } else {
+                int type = PIECE_CHARS.indexOf(Character.toLowerCase(c));
+                if (type < 0 || file == 8) {
+                    throw error(fen, "unexpected '" + c + "' on rank " + (rank + 1));
+                }
+                var color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE :
+                        ChessGame.TeamColor.BLACK;
+                var piece = ChessPiece.of(color, PIECE_TYPES[type]);
+                if (piece.getPieceType() == ChessPiece.PieceType.PAWN &&
+                    (rank == 0 || rank == 7)) {
+                    throw error(fen, "pawn on rank " + (rank + 1));
+                }
+                board.addPiece(ChessPosition.ofSquare(rank * 8 + file), piece);
+                file++;
+            }
+        }
+        if (rank != 0 || file != 8) {
+            throw error(fen, "each of the eight ranks needs eight squares");
+        }
+        for (var color : ChessGame.TeamColor.values()) {
+            if (board.getPieceCount(color, ChessPiece.PieceType.KING) != 1) {
+                throw error(fen, color + " needs exactly one king");
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Reads "-" or any of "KQkq" in that order. Rights whose king or rook is off its home square
+     * are dropped by the board itself.
+     */
+    private static int readCastling(String fen, int i, ChessBoard board) {
+        int rights = 0;
+        if (i < fen.length() && fen.charAt(i) == '-') {
+            board.setCastlingRights(0);
+            return i + 1;
+        }
+        int next = 0;
+        for (; i < fen.length() && fen.charAt(i) != ' '; i++) {
+            int flag = CASTLING_CHARS.indexOf(fen.charAt(i), next);
+            if (flag < 0) {
+                throw error(fen, "castling rights must be '-' or some of \"KQkq\" in order");
+            }
+            rights |= CASTLING_FLAGS[flag];
+            next = flag + 1;
+        }
+        if (next == 0) {
+            throw error(fen, "missing castling rights");
+        }
+        board.setCastlingRights(rights);
+        return i;
+    }
+
+    /**
+     * Reads "-" or the square behind a pawn that has just moved two squares. As on a board where
+     * the move was made, the square is only kept if a pawn of the side to move could capture
+     * there.
+     */
+    private static int readEnPassant(String fen, int i, ChessBoard board,
+                                     ChessGame.TeamColor turn) {
+        if (i < fen.length() && fen.charAt(i) == '-') {
+            return i + 1;
+        }
+        if (i + 1 >= fen.length()) {
+            throw error(fen, "missing en passant square");
+        }
+        int file = fen.charAt(i) - 'a';
+        int rank = fen.charAt(i + 1) - '1';
+        int expectedRank = turn == ChessGame.TeamColor.WHITE ? 5 : 2;
+        if (file < 0 || file > 7 || rank != expectedRank) {
+            throw error(fen, "en passant square must be '-' or on rank " + (expectedRank + 1));
+        }
+        int target = rank * 8 + file;
+        int forward = turn == ChessGame.TeamColor.WHITE ? -8 : 8;
+        var pushed = ChessPiece.of(ChessGame.otherTeam(turn), ChessPiece.PieceType.PAWN);
+        if (board.pieceAt(target) != null || board.pieceAt(target - forward) != null ||
+            !pushed.equals(board.pieceAt(target + forward))) {
+            throw error(fen, "no pawn has just moved two squares past " +
+                             fen.substring(i, i + 2));
+        }
+        board.setEnPassantSquare(target);
+        return i + 2;
+    }
+
+    private static int expect(String fen, int i, char c) {
+        if (i >= fen.length() || fen.charAt(i) != c) {
+            throw error(fen, "expected '" + c + "' at index " + i);
+        }
+        return i + 1;
+    }
+
+    private static int fieldEnd(String fen, int i) {
+        while (i < fen.length() && fen.charAt(i) != ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int readNumber(String fen, int start, int end) {
+        if (start == end || end - start > 6) {
+            throw error(fen, "clocks must be numbers");
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = fen.charAt(i);
+            if (c < '0' || c > '9') {
+                throw error(fen, "clocks must be numbers");
+            }
+            value = value * 10 + c - '0';
+        }
+        return value;
+    }
+
+    private static IllegalArgumentException error(String fen, String reason) {
+        return new IllegalArgumentException("Bad FEN \"" + fen + "\": " + reason);
+    }
+}
@@ -0,0 +1,118 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread-safe map from position key to the legal moves in that position, stored as
+ * {@link Move packed moves}.
+ * <p>
+ * {@link #SHARED} is used by every {@link ChessGame} in the JVM, so a position that turns up in
+ * many games (an opening, say) only has its moves generated once. Only full move lists are
+ * stored: the check for checkmate and stalemate after a move reads an entry when there is one,
+ * but stops at the first legal move it finds and does not fill the cache. Keys are
+ * {@link ChessBoard#getZobristKey()} mixed with the team whose moves are stored. Entries are
+ * spread over lock-striped segments, each of which evicts its least recently used position when
+ * full.
+ */
+public class LegalMoveCache {
+    /**
+     * The cache shared by all games. Its capacity in positions is read from the
+     * {@code chess.movecache.entries} system property.
+     */
+    public static final LegalMoveCache SHARED =
+            new LegalMoveCache(Integer.getInteger("chess.movecache.entries", 8192));
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param capacity roughly how many positions to hold before evicting
+     */
+    public LegalMoveCache(int capacity) {
+        int segmentCapacity = Math.max(1, capacity / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    /**
+     * @param key position key, including the team to move
+     * @return the cached legal moves for that position, or null if they are not cached. The
+     * array is shared with every other caller and must not be modified
+     */
+    public int[] get(long key) {
+        var segment = segmentFor(key);
+        int[] moves;
+        synchronized (segment) {
+            moves = segment.get(key);
+        }
+        if (moves == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return moves;
+    }
+
+    /**
+     * @param key   position key, including the team to move
+     * @param moves every legal move in that position
+     */
+    public void put(long key, int[] moves) {
+        var segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, moves);
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (var segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (var segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    private Segment segmentFor(long key) {
+        return segments[(int) (key >>> 60) & (SEGMENTS - 1)];
+    }
+
+    private static class Segment extends LinkedHashMap<Long, int[]> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+            return size() > capacity;
+        }
+    }
+}
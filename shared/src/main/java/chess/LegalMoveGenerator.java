@@ -0,0 +1,212 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+
+/**
+ * Generates only legal moves, without making each candidate move to see whether it leaves the
+ * king in check.
+ * <p>
+ * The pieces giving check and the pieces pinned to the king are worked out once per position.
+ * In double check only the king may move. In single check every other piece is limited to
+ * capturing the checker or blocking between it and the king. A pinned piece may only move along
+ * the line through its king and the pinning piece. The king itself may step to any square the
+ * opponent does not attack once the king is lifted off the board, so it cannot hide behind
+ * itself from a slider. En passant, which removes two pieces from the same rank at once, is
+ * tested directly against the king's rays.
+ * <p>
+ * To find whether a team has any legal move, generation can stop at the first piece that has
+ * one. The king's moves are tried first, as they are the only ones possible in double check.
+ */
+final class LegalMoveGenerator {
+
+    private LegalMoveGenerator() {
+    }
+
+    /**
+     * Adds every legal move for a team to a list, castling included
+     */
+    static void generate(ChessBoard board, TeamColor color, MoveList moves) {
+        generate(board, color, moves, false, false);
+    }
+
+    /**
+     * Adds the legal captures and promotions for a team to a list, for quiescence searches
+     */
+    static void generateTactical(ChessBoard board, TeamColor color, MoveList moves) {
+        generate(board, color, moves, true, false);
+    }
+
+    /**
+     * @return True if the team has at least one legal move, found without generating the rest
+     */
+    static boolean hasLegalMove(ChessBoard board, TeamColor color) {
+        var moves = new MoveList(8);
+        generate(board, color, moves, false, true);
+        return !moves.isEmpty();
+    }
+
+    /**
+     * @param firstOnly whether to return as soon as any piece has added a move, leaving the list
+     *                  incomplete
+     */
+    private static void generate(ChessBoard board, TeamColor color, MoveList moves,
+                                 boolean tacticalOnly, boolean firstOnly) {
+        int start = moves.size();
+        var opponent = ChessGame.otherTeam(color);
+        long own = board.getOccupancy(color);
+        long targetMask = tacticalOnly ? board.getOccupancy(opponent) : -1L;
+        long occupied = board.getOccupancy();
+        long kings = board.getBitboard(color, PieceType.KING);
+        long checkMask = -1L;
+        long pinned = 0;
+        int king = -1;
+        if (kings != 0) {
+            king = Long.numberOfTrailingZeros(kings);
+            addKingMoves(board, king, opponent, ~own & targetMask, occupied, moves);
+            if (firstOnly && moves.size() > start) {
+                return;
+            }
+            long checkers = board.attackersOf(king, opponent, occupied);
+            if (Long.bitCount(checkers) > 1) {
+                return;
+            }
+            if (checkers != 0) {
+                checkMask = checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+            }
+            pinned = pinnedPieces(board, king, opponent, own, occupied);
+        }
+        long pieces = king < 0 ? own : own & ~(1L << king);
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            long allowed = checkMask;
+            if ((pinned & 1L << from) != 0) {
+                allowed &= Attacks.line(king, from);
+            }
+            var type = board.pieceAt(from).getPieceType();
+            if (type == PieceType.PAWN) {
+                addPawnMoves(board, color, from, allowed, tacticalOnly, moves);
+            } else {
+                long targets =
+                        Attacks.of(type, color, from, occupied) & ~own & allowed & targetMask;
+                while (targets != 0) {
+                    moves.add(Move.of(from, Long.numberOfTrailingZeros(targets)));
+                    targets &= targets - 1;
+                }
+            }
+            if (firstOnly && moves.size() > start) {
+                return;
+            }
+        }
+        addEnPassant(board, color, king, moves);
+        if (checkMask == -1L && !tacticalOnly) {
+            board.addCastlingMoves(color, moves);
+        }
+    }
+
+    private static void addKingMoves(ChessBoard board, int king, TeamColor opponent,
+                                     long targetMask, long occupied, MoveList moves) {
+        long withoutKing = occupied & ~(1L << king);
+        long targets = Attacks.king(king) & targetMask;
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (board.attackersOf(to, opponent, withoutKing) == 0) {
+                moves.add(Move.of(king, to));
+            }
+        }
+    }
+
+    /**
+     * Finds the team's pieces that are the only piece between their king and an enemy slider
+     */
+    private static long pinnedPieces(ChessBoard board, int king, TeamColor opponent, long own,
+                                     long occupied) {
+        long enemies = board.getOccupancy(opponent);
+        long queens = board.getBitboard(opponent, PieceType.QUEEN);
+        long snipers =
+                (Attacks.rook(king, enemies) & (board.getBitboard(opponent, PieceType.ROOK) |
+                                                queens)) |
+                (Attacks.bishop(king, enemies) & (board.getBitboard(opponent, PieceType.BISHOP) |
+                                                  queens));
+        long pinned = 0;
+        while (snipers != 0) {
+            long blockers = Attacks.between(king, Long.numberOfTrailingZeros(snipers)) & occupied;
+            snipers &= snipers - 1;
+            if (Long.bitCount(blockers) == 1 && (blockers & own) != 0) {
+                pinned |= blockers;
+            }
+        }
+        return pinned;
+    }
+
+    private static void addPawnMoves(ChessBoard board, TeamColor color, int from, long allowed,
+                                     boolean tacticalOnly, MoveList moves) {
+        boolean white = color == TeamColor.WHITE;
+        int rank = from >>> 3;
+        if (rank == (white ? 7 : 0)) {
+            return;
+        }
+        int forward = white ? 8 : -8;
+        boolean promotes = rank == (white ? 6 : 1);
+        long occupied = board.getOccupancy();
+        int oneStep = from + forward;
+        if ((occupied & 1L << oneStep) == 0 && (promotes || !tacticalOnly)) {
+            if ((allowed & 1L << oneStep) != 0) {
+                ChessPiece.addPawnMove(from, oneStep, promotes, moves);
+            }
+            int twoSteps = oneStep + forward;
+            if (rank == (white ? 1 : 6) && (occupied & 1L << twoSteps) == 0 &&
+                (allowed & 1L << twoSteps) != 0) {
+                moves.add(Move.of(from, twoSteps));
+            }
+        }
+        long captures = Attacks.pawn(color, from) &
+                        board.getOccupancy(ChessGame.otherTeam(color)) & allowed;
+        while (captures != 0) {
+            ChessPiece.addPawnMove(from, Long.numberOfTrailingZeros(captures), promotes, moves);
+            captures &= captures - 1;
+        }
+    }
+
+    /**
+     * Adds en passant captures whose board afterwards, with both pawns moved, leaves the king
+     * unattacked
+     */
+    private static void addEnPassant(ChessBoard board, TeamColor color, int king,
+                                     MoveList moves) {
+        int target = board.getEnPassantSquare();
+        if (target == ChessBoard.NO_SQUARE) {
+            return;
+        }
+        var opponent = ChessGame.otherTeam(color);
+        int captured = target + (color == TeamColor.WHITE ? -8 : 8);
+        long enemyPawns = board.getBitboard(opponent, PieceType.PAWN);
+        if ((enemyPawns & 1L << captured) == 0) {
+            return;
+        }
+        long capturers = Attacks.pawn(opponent, target) & board.getBitboard(color,
+                PieceType.PAWN);
+        while (capturers != 0) {
+            int from = Long.numberOfTrailingZeros(capturers);
+            capturers &= capturers - 1;
+            if (king < 0) {
+                moves.add(Move.of(from, target));
+                continue;
+            }
+            long after = (board.getOccupancy() & ~(1L << from | 1L << captured)) | 1L << target;
+            long queens = board.getBitboard(opponent, PieceType.QUEEN);
+            boolean exposed =
+                    (Attacks.rook(king, after) &
+                     (board.getBitboard(opponent, PieceType.ROOK) | queens)) != 0 ||
+                    (Attacks.bishop(king, after) &
+                     (board.getBitboard(opponent, PieceType.BISHOP) | queens)) != 0 ||
+                    (Attacks.knight(king) & board.getBitboard(opponent, PieceType.KNIGHT)) != 0 ||
+                    (Attacks.pawn(color, king) & enemyPawns & ~(1L << captured)) != 0;
+            if (!exposed) {
+                moves.add(Move.of(from, target));
+            }
+        }
+    }
+}
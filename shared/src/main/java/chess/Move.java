@@ -0,0 +1,73 @@
+package chess;
+
+/**
+ * A chess move packed into the low 16 bits of an int, for move generation and search where a
+ * {@link ChessMove} per move would be too much allocation and hashing.
+ * <p>
+ * Bits 0-5 hold the start square and bits 6-11 the end square, numbered as on
+ * {@link ChessBoard} from 0 (a1) to 63 (h8). Bits 12-14 hold the promotion piece type's
+ * ordinal plus one, or zero for no promotion. Castling and en passant are not flagged, since the
+ * board can tell them apart from the piece that moves. The upper 16 bits are free for callers to
+ * pack a score next to the move; mask with {@link #MASK} to recover it.
+ */
+public final class Move {
+    /**
+     * Not a move: no legal move starts and ends on a1
+     */
+    public static final int NONE = 0;
+    public static final int MASK = 0xFFFF;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Move() {
+    }
+
+    public static int of(int from, int to) {
+        return from | to << 6;
+    }
+
+    public static int of(int from, int to, ChessPiece.PieceType promotion) {
+        return promotion == null ? of(from, to) : from | to << 6 | (promotion.ordinal() + 1) << 12;
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * @return the type a pawn promotes to, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promotion = (move >>> 12) & 0x7;
+        return promotion == 0 ? null : TYPES[promotion - 1];
+    }
+
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(ChessBoard.positionOf(from(move)), ChessBoard.positionOf(to(move)),
+                promotion(move));
+    }
+
+    public static int fromChessMove(ChessMove move) {
+        return of(ChessBoard.squareOf(move.getStartPosition()),
+                ChessBoard.squareOf(move.getEndPosition()), move.getPromotionPiece());
+    }
+
+    /**
+     * @return the move in coordinate notation, such as e2e4 or e7e8q
+     */
+    public static String toString(int move) {
+        var builder = new StringBuilder(5);
+        for (int square : new int[]{from(move), to(move)}) {
+            builder.append((char) ('a' + (square & 7))).append((char) ('1' + (square >>> 3)));
+        }
+        var promotion = promotion(move);
+        if (promotion != null) {
+            builder.append("kqbnrp".charAt(promotion.ordinal()));
+        }
+        return builder.toString();
+    }
+}
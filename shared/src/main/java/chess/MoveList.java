@@ -0,0 +1,77 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable list of {@link Move packed moves} backed by an int array. Meant to be cleared and
+ * refilled rather than reallocated, so one list per search ply is enough.
+ */
+public final class MoveList {
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(256);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[Math.max(1, capacity)];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Drops every move from {@code size} onward
+     */
+    public void truncate(int size) {
+        this.size = Math.min(this.size, size);
+    }
+
+    /**
+     * Swaps two moves, for selection sorts during move ordering
+     */
+    public void swap(int i, int j) {
+        int move = moves[i];
+        moves[i] = moves[j];
+        moves[j] = move;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(moves, size);
+    }
+
+    public List<ChessMove> toChessMoves() {
+        var chessMoves = new ArrayList<ChessMove>(size);
+        for (int i = 0; i < size; i++) {
+            chessMoves.add(Move.toChessMove(moves[i]));
+        }
+        return chessMoves;
+    }
+}
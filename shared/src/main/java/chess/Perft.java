@@ -0,0 +1,81 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the positions reachable from a game in an exact number of moves ("perft").
+ * <p>
+ * Published perft counts for well-known positions make this a correctness check for the move
+ * generator (castling, en passant and promotion included), and the time it takes is a measure
+ * of the generator's speed. The game's board is searched in place with make/unmake and is left
+ * as it was found. Moves are generated afresh at every node rather than read from
+ * {@link LegalMoveCache}, into one reusable {@link MoveList} per ply.
+ */
+public final class Perft {
+
+    private Perft() {
+    }
+
+    /**
+     * Counts the leaf positions of the legal move tree below the current position
+     *
+     * @param game  the game to search, moving first with the side whose turn it is
+     * @param depth how many moves deep to search
+     * @return number of positions exactly {@code depth} moves away
+     */
+    public static long perft(ChessGame game, int depth) {
+        return perft(game.getBoard(), game.getTeamTurn(), depth, moveLists(depth));
+    }
+
+    /**
+     * Splits the perft count by first move, for narrowing down where two generators disagree
+     *
+     * @param game  the game to search, moving first with the side whose turn it is
+     * @param depth how many moves deep to search, at least 1
+     * @return perft count of depth - 1 below each legal first move
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        var counts = new LinkedHashMap<ChessMove, Long>();
+        var board = game.getBoard();
+        var color = game.getTeamTurn();
+        var moveLists = moveLists(depth);
+        var moves = new MoveList();
+        board.generateLegalMoves(color, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            counts.put(Move.toChessMove(moves.get(i)),
+                    perft(board, ChessGame.otherTeam(color), depth - 1, moveLists));
+            board.unmakeMove();
+        }
+        return counts;
+    }
+
+    private static long perft(ChessBoard board, ChessGame.TeamColor color, int depth,
+                              MoveList[] moveLists) {
+        if (depth == 0) {
+            return 1;
+        }
+        var moves = moveLists[depth];
+        moves.clear();
+        board.generateLegalMoves(color, moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += perft(board, ChessGame.otherTeam(color), depth - 1, moveLists);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    private static MoveList[] moveLists(int depth) {
+        var moveLists = new MoveList[Math.max(depth, 0) + 1];
+        for (int i = 0; i < moveLists.length; i++) {
+            moveLists[i] = new MoveList();
+        }
+        return moveLists;
+    }
+}
@@ -0,0 +1,52 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing of chess positions.
+ * <p>
+ * A position's key is the XOR of one key per piece on the board, one for the castling rights
+ * still available, one for the en passant file (when a capture there is possible) and, when
+ * black is to move, {@link #BLACK_TO_MOVE}. The keys come from a fixed seed, so every JVM
+ * computes the same key for the same position.
+ */
+public final class Zobrist {
+    private static final long SEED = 0x43_48_45_53_53_32_34_30L;
+
+    static final long[] PIECE_SQUARE = new long[12 * 64];
+    static final long[] CASTLING = new long[16];
+    static final long[] EN_PASSANT_FILE = new long[8];
+    public static final long BLACK_TO_MOVE;
+
+    static {
+        var random = new SplittableRandom(SEED);
+        for (int i = 0; i < PIECE_SQUARE.length; i++) {
+            PIECE_SQUARE[i] = random.nextLong();
+        }
+        long[] rightKeys = new long[4];
+        for (int i = 0; i < rightKeys.length; i++) {
+            rightKeys[i] = random.nextLong();
+        }
+        for (int rights = 0; rights < CASTLING.length; rights++) {
+            for (int i = 0; i < rightKeys.length; i++) {
+                if ((rights & 1 << i) != 0) {
+                    CASTLING[rights] ^= rightKeys[i];
+                }
+            }
+        }
+        for (int i = 0; i < EN_PASSANT_FILE.length; i++) {
+            EN_PASSANT_FILE[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @return the key to XOR in for the given team being the one to move
+     */
+    public static long sideToMove(ChessGame.TeamColor team) {
+        return team == ChessGame.TeamColor.BLACK ? BLACK_TO_MOVE : 0;
+    }
+}
@@ -0,0 +1,150 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+
+import java.util.SplittableRandom;
+
+/**
+ * A computer opponent that picks moves for a {@link ChessGame}.
+ * <p>
+ * Searches are Lazy SMP: one main thread searches within the limits while helper threads search
+ * the same position with no limits, and all of them share one transposition table. The helpers
+ * leave scores and best moves in the table that let the main thread skip work, and the main
+ * thread's result is the engine's. Every thread searches a private copy of the game's board, so
+ * the game itself is never touched and no board is shared between threads.
+ * <p>
+ * Results in the table are kept from one search to the next, where they are replaced before
+ * newer ones. An engine keeps its search tables between searches and allocates almost nothing
+ * while searching. It searches one position at a time, so concurrent games should each have
+ * their own engine.
+ */
+public class Engine {
+    /**
+     * Transposition table size in megabytes for engines not given one, read from the
+     * {@code chess.tt.mb} system property.
+     */
+    public static final int DEFAULT_TABLE_MB = Integer.getInteger("chess.tt.mb", 16);
+
+    private final TranspositionTable table;
+    private final Searcher[] searchers;
+    private final SplittableRandom random = new SplittableRandom();
+    private OpeningBook book;
+
+    /**
+     * Creates an engine that searches on the calling thread only
+     */
+    public Engine() {
+        this(1);
+    }
+
+    /**
+     * @param threads threads to search with, the calling thread included
+     */
+    public Engine(int threads) {
+        this(threads, DEFAULT_TABLE_MB);
+    }
+
+    /**
+     * @param threads        threads to search with, the calling thread included
+     * @param tableMegabytes memory for the transposition table the threads share
+     */
+    public Engine(int threads, int tableMegabytes) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("An engine needs at least one thread: " + threads);
+        }
+        table = TranspositionTable.ofMegabytes(tableMegabytes);
+        searchers = new Searcher[threads];
+        for (int i = 0; i < threads; i++) {
+            searchers[i] = new Searcher(table);
+        }
+    }
+
+    public int getThreads() {
+        return searchers.length;
+    }
+
+    /**
+     * @param book where to take moves from without searching while the game is in it, or null to
+     *             always search
+     */
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    /**
+     * Finds the best move for the side whose turn it is. A position in the opening book is not
+     * searched; one of the book's moves is returned at depth 0.
+     *
+     * @param game   the game to move in
+     * @param limits when to stop searching
+     * @return the best move found and how the search went
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        if (book != null) {
+            var move = book.pick(game, random);
+            if (move != null) {
+                return new SearchResult(move, 0, 0, 0, 0, searchers.length);
+            }
+        }
+        var turn = game.getTeamTurn();
+        table.newSearch();
+        for (var searcher : searchers) {
+            searcher.clearStop();
+        }
+        var helpers = new Thread[searchers.length - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            var searcher = searchers[i + 1];
+            var board = new ChessBoard(game.getBoard());
+            int helper = i + 1;
+            helpers[i] = Thread.ofPlatform().daemon().name("engine-helper-" + helper)
+                    .start(() -> searcher.help(board, turn, helper));
+        }
+        SearchResult result;
+        try {
+            result = searchers[0].search(new ChessBoard(game.getBoard()), turn, limits);
+        } finally {
+            for (int i = 1; i < searchers.length; i++) {
+                searchers[i].stop();
+            }
+            joinAll(helpers);
+        }
+        long nodes = result.nodes();
+        for (int i = 1; i < searchers.length; i++) {
+            nodes += searchers[i].nodes();
+        }
+        return new SearchResult(result.bestMove(), result.score(), result.depth(), nodes,
+                result.millis(), searchers.length);
+    }
+
+    /**
+     * Asks a search running on another thread to return as soon as it has a move
+     */
+    public void stop() {
+        searchers[0].stop();
+    }
+
+    /**
+     * Forgets every stored search result, so the next search starts from scratch
+     */
+    public void clear() {
+        table.clear();
+    }
+
+    private static void joinAll(Thread[] threads) {
+        boolean interrupted = false;
+        for (var thread : threads) {
+            while (true) {
+                try {
+                    thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+
+/**
+ * Static evaluation of a position, in centipawns from the point of view of the side to move.
+ * <p>
+ * The board keeps middlegame and endgame piece-square sums and the game phase up to date as
+ * pieces move, so evaluating is a blend of the two sums weighted by phase, in constant time.
+ */
+final class Evaluation {
+    /**
+     * A small bonus for having the move, so a search does not flip its score between odd and
+     * even depths
+     */
+    private static final int TEMPO = 10;
+
+    private Evaluation() {
+    }
+
+    static int evaluate(ChessBoard board, ChessGame.TeamColor sideToMove) {
+        var opponent = ChessGame.otherTeam(sideToMove);
+        int midgame = board.getMidgameScore(sideToMove) - board.getMidgameScore(opponent);
+        int endgame = board.getEndgameScore(sideToMove) - board.getEndgameScore(opponent);
+        int phase = Math.min(board.getPhase(), ChessBoard.FULL_PHASE);
+        return (midgame * phase + endgame * (ChessBoard.FULL_PHASE - phase)) /
+               ChessBoard.FULL_PHASE + TEMPO;
+    }
+}
@@ -0,0 +1,170 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.PolyglotKey;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * An opening book read from a Polyglot {@code .bin} file: 16-byte big-endian entries of
+ * position key, move, weight and learning data, sorted by key.
+ * <p>
+ * The file is memory-mapped rather than read, so a lookup is a binary search over the mapped
+ * entries and only the pages it touches are loaded. Positions are keyed by
+ * {@link PolyglotKey}, so books made by other Polyglot-compatible programs can be used as they
+ * are. A book may be shared by any number of threads.
+ */
+public final class OpeningBook {
+    private static final int ENTRY_SIZE = 16;
+    /**
+     * Promotion pieces by their Polyglot move code, which counts from 1
+     */
+    private static final ChessPiece.PieceType[] PROMOTIONS = {null, ChessPiece.PieceType.KNIGHT,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN};
+
+    /**
+     * One move a book gives for a position
+     *
+     * @param key    the position's {@link PolyglotKey}
+     * @param move   the move; castling may be given as the king capturing its own rook
+     * @param weight how often to play the move relative to the others for the position
+     */
+    public record Entry(long key, ChessMove move, int weight) {
+    }
+
+    private final MappedByteBuffer entries;
+    private final int size;
+
+    private OpeningBook(MappedByteBuffer entries) {
+        this.entries = entries;
+        this.size = entries.capacity() / ENTRY_SIZE;
+    }
+
+    /**
+     * Maps a book file into memory
+     *
+     * @param path the book file
+     * @return the book
+     * @throws IOException if the file cannot be read or is not a whole number of entries
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length % ENTRY_SIZE != 0 || length > Integer.MAX_VALUE) {
+                throw new IOException("Not an opening book: " + path);
+            }
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, length));
+        }
+    }
+
+    /**
+     * @return number of entries in the book
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param game the game to look up
+     * @return the book's legal moves for the game's position, with castling given as the king's
+     * move, or an empty list if the position is not in the book
+     */
+    public List<Entry> lookup(ChessGame game) {
+        long key = PolyglotKey.of(game);
+        var found = new ArrayList<Entry>();
+        Collection<ChessMove> legal = null;
+        for (int i = firstIndex(key); i < size && entries.getLong(i * ENTRY_SIZE) == key; i++) {
+            int offset = i * ENTRY_SIZE;
+            var move = decode(game, entries.getShort(offset + 8) & 0xFFFF);
+            int weight = entries.getShort(offset + 10) & 0xFFFF;
+            if (legal == null) {
+                legal = game.validMoves(game.getTeamTurn());
+            }
+            if (legal.contains(move)) {
+                found.add(new Entry(key, move, weight));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Chooses one of the book's moves for the game's position, each with chance in proportion
+     * to its weight
+     *
+     * @param game   the game to move in
+     * @param random where to draw the choice from
+     * @return the chosen move, or null if the position is not in the book or all of its moves
+     * have no weight
+     */
+    public ChessMove pick(ChessGame game, RandomGenerator random) {
+        var moves = lookup(game);
+        int total = 0;
+        for (var entry : moves) {
+            total += entry.weight();
+        }
+        if (total == 0) {
+            return null;
+        }
+        int choice = random.nextInt(total);
+        for (var entry : moves) {
+            choice -= entry.weight();
+            if (choice < 0) {
+                return entry.move();
+            }
+        }
+        throw new AssertionError();
+    }
+
+    /**
+     * @return index of the first entry whose key is not below the given one, by unsigned order
+     */
+    private int firstIndex(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(entries.getLong(middle * ENTRY_SIZE), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Decodes a Polyglot move: bits 0-2 the target file, 3-5 the target rank, 6-8 the start
+     * file, 9-11 the start rank and 12-14 the promotion piece. A king's move onto its own rook
+     * from its starting square is castling, and is turned into the king's two-square move.
+     */
+    private static ChessMove decode(ChessGame game, int code) {
+        int toColumn = (code & 7) + 1;
+        int toRow = ((code >>> 3) & 7) + 1;
+        int fromColumn = ((code >>> 6) & 7) + 1;
+        int fromRow = ((code >>> 9) & 7) + 1;
+        var promotion = PROMOTIONS[Math.min((code >>> 12) & 7, PROMOTIONS.length - 1)];
+        var board = game.getBoard();
+        var start = ChessPosition.of(fromRow, fromColumn);
+        var piece = board.getPiece(start);
+        if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING &&
+            fromColumn == 5 && toRow == fromRow && (toColumn == 1 || toColumn == 8)) {
+            var target = board.getPiece(ChessPosition.of(toRow, toColumn));
+            if (target != null && target.getTeamColor() == piece.getTeamColor() &&
+                target.getPieceType() == ChessPiece.PieceType.ROOK) {
+                toColumn = toColumn == 8 ? 7 : 3;
+            }
+        }
+        return new ChessMove(start, ChessPosition.of(toRow, toColumn), promotion);
+    }
+}
@@ -0,0 +1,38 @@
+package chess.engine;
+
+/**
+ * When a search should stop: after completing a depth, after visiting a number of nodes or after
+ * an amount of time, whichever comes first. Zero means no limit of that kind; a search with no
+ * limits at all runs to the engine's maximum depth.
+ *
+ * @param depth  deepest iteration to search, in plies
+ * @param nodes  most positions to visit
+ * @param millis most time to spend, in milliseconds
+ */
+public record SearchLimits(int depth, long nodes, long millis) {
+    public static final SearchLimits NONE = new SearchLimits(0, 0, 0);
+
+    public static SearchLimits depth(int depth) {
+        return NONE.withDepth(depth);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return NONE.withNodes(nodes);
+    }
+
+    public static SearchLimits millis(long millis) {
+        return NONE.withMillis(millis);
+    }
+
+    public SearchLimits withDepth(int depth) {
+        return new SearchLimits(depth, nodes, millis);
+    }
+
+    public SearchLimits withNodes(long nodes) {
+        return new SearchLimits(depth, nodes, millis);
+    }
+
+    public SearchLimits withMillis(long millis) {
+        return new SearchLimits(depth, nodes, millis);
+    }
+}
@@ -0,0 +1,48 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+/**
+ * The outcome of a search.
+ *
+ * @param bestMove the move to play, or null if the side to move has no legal move
+ * @param score    score of the position after the best move in centipawns, from the point of view
+ *                 of the side to move; see {@link #isMate()}
+ * @param depth    deepest iteration that finished
+ * @param nodes    positions visited by all threads, quiescence included
+ * @param millis   time spent searching, in milliseconds
+ * @param threads  threads that searched
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes, long millis,
+                           int threads) {
+
+    /**
+     * @return True if the score is a forced mate for either side
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Searcher.MATE - Searcher.MAX_PLY;
+    }
+
+    /**
+     * @return moves until mate, positive if the side to move mates and negative if it is mated,
+     * or 0 if the score is not a mate
+     */
+    public int mateIn() {
+        if (!isMate()) {
+            return 0;
+        }
+        int plies = Searcher.MATE - Math.abs(score);
+        return Integer.signum(score) * (plies + 1) / 2;
+    }
+
+    public long nodesPerSecond() {
+        return millis == 0 ? nodes * 1000 : nodes * 1000 / millis;
+    }
+
+    /**
+     * @return search speed of each thread, to compare how the search scales with threads
+     */
+    public long nodesPerSecondPerThread() {
+        return nodesPerSecond() / threads;
+    }
+}
@@ -0,0 +1,407 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveList;
+import chess.Zobrist;
+
+import java.util.Arrays;
+
+/**
+ * Iterative deepening alpha-beta search over a board it has to itself.
+ * <p>
+ * Every array the search needs is allocated once with the searcher and reused: a move list and
+ * a row of move scores per ply, two killer moves per ply and a history table per side. Moves
+ * are tried best-first by selection sort: the best move from the previous iteration at the
+ * root, then captures and promotions by most valuable victim and least valuable attacker, then
+ * the killer moves that caused cutoffs at the same ply, then quiet moves by how often they have
+ * caused cutoffs anywhere. A move stored for the position in the transposition table, by this
+ * or another searcher, goes first, and stored scores cut the search short when deep enough.
+ * Leaves are resolved with a quiescence search of captures so the static evaluation is never
+ * taken in the middle of an exchange.
+ */
+final class Searcher {
+    static final int MAX_PLY = 128;
+    static final int MATE = 30000;
+    static final int INFINITY = 32000;
+    private static final int MAX_DEPTH = 64;
+
+    private static final int FIRST_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 27;
+    private static final int HISTORY_LIMIT = 1 << 26;
+    /**
+     * Rank of each piece type, by ordinal, for ordering captures
+     */
+    private static final int[] ORDER_VALUE = {6, 5, 3, 2, 4, 1};
+
+    private final MoveList[] moveLists = new MoveList[MAX_PLY + 1];
+    private final int[][] moveScores = new int[MAX_PLY + 1][256];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[][] history = new int[2][64 * 64];
+
+    private final TranspositionTable table;
+    private ChessBoard board;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private boolean canAbort;
+    private boolean aborted;
+    private volatile boolean stopRequested;
+    private int rootBestMove;
+    private int resultMove;
+    private int resultScore;
+    private int resultDepth;
+
+    /**
+     * @param table where results are shared with the other searchers of the same engine
+     */
+    Searcher(TranspositionTable table) {
+        this.table = table;
+        for (int ply = 0; ply < moveLists.length; ply++) {
+            moveLists[ply] = new MoveList();
+        }
+    }
+
+    /**
+     * Searches a position until the limits are reached. The first iteration always finishes, so
+     * a legal move is returned whenever there is one.
+     *
+     * @param board      the board to search, which is used in place and left as it was
+     * @param sideToMove the team whose move it is
+     * @param limits     when to stop
+     * @return the best move and score from the deepest finished iteration
+     */
+    SearchResult search(ChessBoard board, ChessGame.TeamColor sideToMove, SearchLimits limits) {
+        long start = System.nanoTime();
+        nodeLimit = limits.nodes() > 0 ? limits.nodes() : Long.MAX_VALUE;
+        deadline = limits.millis() > 0 ? start + limits.millis() * 1_000_000 : Long.MAX_VALUE;
+        int maxDepth = limits.depth() > 0 ? Math.min(limits.depth(), MAX_DEPTH) : MAX_DEPTH;
+        begin(board, false);
+        iterate(sideToMove, 1, maxDepth);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        return new SearchResult(resultMove == Move.NONE ? null : Move.toChessMove(resultMove),
+                resultScore, resultDepth, nodes, millis, 1);
+    }
+
+    /**
+     * Searches alongside a main search until stopped, for the results it leaves in the shared
+     * table. Helpers start at staggered depths so they are not all working on the same
+     * iteration.
+     *
+     * @param board      a board of the helper's own, in the main search's position
+     * @param sideToMove the team whose move it is
+     * @param helper     which helper this is, counting from 1
+     */
+    void help(ChessBoard board, ChessGame.TeamColor sideToMove, int helper) {
+        nodeLimit = Long.MAX_VALUE;
+        deadline = Long.MAX_VALUE;
+        begin(board, true);
+        iterate(sideToMove, 1 + helper % 2, MAX_DEPTH);
+    }
+
+    /**
+     * Asks a running search to stop; a main search still finishes its first iteration
+     */
+    void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Forgets an earlier {@link #stop()}, ready for the next search
+     */
+    void clearStop() {
+        stopRequested = false;
+    }
+
+    /**
+     * @return positions visited by the last search
+     */
+    long nodes() {
+        return nodes;
+    }
+
+    private void begin(ChessBoard board, boolean canAbort) {
+        this.board = board;
+        this.canAbort = canAbort;
+        nodes = 0;
+        aborted = false;
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, Move.NONE);
+        }
+        ageHistory();
+    }
+
+    private void iterate(ChessGame.TeamColor side, int firstDepth, int maxDepth) {
+        resultMove = Move.NONE;
+        resultScore = 0;
+        resultDepth = 0;
+        for (int depth = firstDepth; depth <= maxDepth; depth++) {
+            int score = searchRoot(side, depth, resultMove);
+            if (aborted) {
+                break;
+            }
+            resultMove = rootBestMove;
+            resultScore = score;
+            resultDepth = depth;
+            canAbort = true;
+            if (resultMove == Move.NONE || Math.abs(score) >= MATE - depth) {
+                break;
+            }
+        }
+    }
+
+    private int searchRoot(ChessGame.TeamColor side, int depth, int previousBest) {
+        var moves = moveLists[0];
+        moves.clear();
+        board.generateLegalMoves(side, moves);
+        rootBestMove = Move.NONE;
+        if (moves.isEmpty()) {
+            return board.isInCheck(side) ? -MATE : 0;
+        }
+        long key = board.getZobristKey() ^ Zobrist.sideToMove(side);
+        if (previousBest == Move.NONE) {
+            previousBest = TranspositionTable.move(table.probe(key));
+        }
+        scoreMoves(0, side, moves, previousBest);
+        var opponent = ChessGame.otherTeam(side);
+        int alpha = -INFINITY;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickMove(0, moves, i);
+            board.makeMove(move);
+            int score = -alphaBeta(opponent, depth - 1, -INFINITY, -alpha, 1);
+            board.unmakeMove();
+            if (aborted) {
+                return alpha;
+            }
+            if (score > alpha) {
+                alpha = score;
+                rootBestMove = move;
+            }
+        }
+        table.store(key, rootBestMove, alpha, depth, TranspositionTable.EXACT, 0);
+        return alpha;
+    }
+
+    private int alphaBeta(ChessGame.TeamColor side, int depth, int alpha, int beta, int ply) {
+        if (isDraw()) {
+            return 0;
+        }
+        boolean inCheck = board.isInCheck(side);
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0 || ply >= MAX_PLY) {
+            return quiesce(side, alpha, beta, ply);
+        }
+        if (countNode()) {
+            return 0;
+        }
+        long key = board.getZobristKey() ^ Zobrist.sideToMove(side);
+        long entry = table.probe(key);
+        int hashMove = Move.NONE;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int score = TranspositionTable.score(entry, ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT ||
+                    (bound == TranspositionTable.LOWER && score >= beta) ||
+                    (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+        var moves = moveLists[ply];
+        moves.clear();
+        board.generateLegalMoves(side, moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(ply, side, moves, hashMove);
+        var opponent = ChessGame.otherTeam(side);
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickMove(ply, moves, i);
+            boolean quiet = tacticalScore(move) == 0;
+            board.makeMove(move);
+            int score = -alphaBeta(opponent, depth - 1, -beta, -alpha, ply + 1);
+            board.unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                }
+                if (alpha >= beta) {
+                    if (quiet) {
+                        recordCutoff(side, move, depth, ply);
+                    }
+                    break;
+                }
+            }
+        }
+        int bound = best >= beta ? TranspositionTable.LOWER :
+                best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, best, depth, bound, ply);
+        return best;
+    }
+
+    private int quiesce(ChessGame.TeamColor side, int alpha, int beta, int ply) {
+        if (countNode()) {
+            return 0;
+        }
+        if (ply >= MAX_PLY) {
+            return Evaluation.evaluate(board, side);
+        }
+        var moves = moveLists[ply];
+        moves.clear();
+        int best;
+        if (board.isInCheck(side)) {
+            board.generateLegalMoves(side, moves);
+            if (moves.isEmpty()) {
+                return -MATE + ply;
+            }
+            best = -INFINITY;
+        } else {
+            best = Evaluation.evaluate(board, side);
+            if (best >= beta) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+            board.generateLegalCaptures(side, moves);
+        }
+        scoreMoves(ply, side, moves, Move.NONE);
+        var opponent = ChessGame.otherTeam(side);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickMove(ply, moves, i);
+            board.makeMove(move);
+            int score = -quiesce(opponent, -beta, -alpha, ply + 1);
+            board.unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                }
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Counts a node and checks the limits every so often
+     *
+     * @return True if the search has to stop
+     */
+    private boolean countNode() {
+        nodes++;
+        if (canAbort && ((nodes & 1023) == 0 || nodes >= nodeLimit)) {
+            if (stopRequested || nodes >= nodeLimit || System.nanoTime() >= deadline) {
+                aborted = true;
+            }
+        }
+        return aborted;
+    }
+
+    private boolean isDraw() {
+        int clock = board.getHalfmoveClock();
+        return clock >= 100 || board.hasInsufficientMaterial() ||
+               (clock >= 4 && board.repetitionCount() >= 2);
+    }
+
+    private void scoreMoves(int ply, ChessGame.TeamColor side, MoveList moves, int firstMove) {
+        int[] scores = moveScores[ply];
+        int[] sideHistory = history[side.ordinal()];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int tactical = tacticalScore(move);
+            if (move == firstMove) {
+                scores[i] = FIRST_MOVE_SCORE;
+            } else if (tactical > 0) {
+                scores[i] = CAPTURE_SCORE + tactical;
+            } else if (move == killers[ply][0]) {
+                scores[i] = KILLER_SCORE + 1;
+            } else if (move == killers[ply][1]) {
+                scores[i] = KILLER_SCORE;
+            } else {
+                scores[i] = sideHistory[Move.from(move) * 64 + Move.to(move)];
+            }
+        }
+    }
+
+    /**
+     * @return a positive ordering score for a capture or promotion, most valuable victim first
+     * and least valuable attacker second, or 0 for a quiet move
+     */
+    private int tacticalScore(int move) {
+        int to = Move.to(move);
+        var attacker = board.pieceAt(Move.from(move)).getPieceType();
+        var victim = board.pieceAt(to);
+        int score = 0;
+        if (victim != null) {
+            score = ORDER_VALUE[victim.getPieceType().ordinal()] * 8 + 7 -
+                    ORDER_VALUE[attacker.ordinal()];
+        } else if (attacker == ChessPiece.PieceType.PAWN && to == board.getEnPassantSquare()) {
+            score = ORDER_VALUE[ChessPiece.PieceType.PAWN.ordinal()] * 8 + 6;
+        }
+        var promotion = Move.promotion(move);
+        if (promotion != null) {
+            score += ORDER_VALUE[promotion.ordinal()] * 64;
+        }
+        return score;
+    }
+
+    private int pickMove(int ply, MoveList moves, int index) {
+        int[] scores = moveScores[ply];
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            moves.swap(index, best);
+            int score = scores[index];
+            scores[index] = scores[best];
+            scores[best] = score;
+        }
+        return moves.get(index);
+    }
+
+    private void recordCutoff(ChessGame.TeamColor side, int move, int depth, int ply) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] sideHistory = history[side.ordinal()];
+        int index = Move.from(move) * 64 + Move.to(move);
+        sideHistory[index] += depth * depth;
+        if (sideHistory[index] > HISTORY_LIMIT) {
+            ageHistory();
+        }
+    }
+
+    /**
+     * Halves the history scores, so cutoffs from earlier searches count for less
+     */
+    private void ageHistory() {
+        for (int[] sideHistory : history) {
+            for (int i = 0; i < sideHistory.length; i++) {
+                sideHistory[i] >>= 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package chess.engine;
+
+import chess.Move;
+
+import java.util.Arrays;
+
+/**
+ * Search results by position, shared without locks by every thread searching for one engine.
+ * <p>
+ * Entries live in one primitive array as pairs of longs: the position's key XORed with the
+ * data, then the data. Threads read and write the two halves without synchronization, so an
+ * entry can be torn by a concurrent write; a torn entry no longer XORs back to the probed key
+ * and reads as a miss. Entries are grouped in buckets of four, 64 bytes, and a key may sit in
+ * any entry of its bucket.
+ * <p>
+ * A new result for a position replaces the stored one unless the stored one is deeper and from
+ * the current search, and the new result is a bound; a shallower exact score always replaces
+ * it, keeping the principal variation in the table. Otherwise it replaces the entry in the
+ * bucket worth least, counting an entry's depth against how many searches ago it was stored, so
+ * deep results survive and stale ones age out. {@link #newSearch()} starts a new generation.
+ */
+final class TranspositionTable {
+    static final int EXACT = 1;
+    static final int LOWER = 2;
+    static final int UPPER = 3;
+
+    private static final int BUCKET_SIZE = 4;
+    private static final int ENTRY_BYTES = 16;
+    private static final int GENERATIONS = 64;
+    private static final int MAX_ENTRIES = 1 << 29;
+
+    private final long[] entries;
+    private final int bucketMask;
+    private int generation;
+
+    /**
+     * @param size number of entries, a power of two no smaller than a bucket
+     */
+    TranspositionTable(int size) {
+        if (Integer.bitCount(size) != 1 || size < BUCKET_SIZE) {
+            throw new IllegalArgumentException("Table size must be a power of two of at least " +
+                                               BUCKET_SIZE + ": " + size);
+        }
+        entries = new long[size * 2];
+        bucketMask = size / BUCKET_SIZE - 1;
+    }
+
+    /**
+     * @param megabytes the most memory the table may use
+     * @return the largest table that fits
+     */
+    static TranspositionTable ofMegabytes(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Table needs at least 1 MB: " + megabytes);
+        }
+        long entries = Long.highestOneBit(((long) megabytes << 20) / ENTRY_BYTES);
+        return new TranspositionTable((int) Math.min(entries, MAX_ENTRIES));
+    }
+
+    /**
+     * @return number of entries the table holds
+     */
+    int size() {
+        return entries.length / 2;
+    }
+
+    /**
+     * Starts a new generation, so results of earlier searches are the first to be replaced.
+     * Must be called before the threads of the next search are started.
+     */
+    void newSearch() {
+        generation = (generation + 1) % GENERATIONS;
+    }
+
+    /**
+     * @param key the position's key, side to move included
+     * @return the stored data for the position, or 0 if there is none
+     */
+    long probe(long key) {
+        int base = bucketOf(key);
+        for (int i = base; i < base + BUCKET_SIZE * 2; i += 2) {
+            long data = entries[i + 1];
+            if ((entries[i] ^ data) == key) {
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Stores a search result, with mate scores made relative to the stored position
+     *
+     * @param key   the position's key, side to move included
+     * @param move  the best move found, or {@link Move#NONE} to keep the stored one
+     * @param score the score, relative to the root of the search
+     * @param depth the depth searched
+     * @param bound {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+     * @param ply   distance of the position from the root
+     */
+    void store(long key, int move, int score, int depth, int bound, int ply) {
+        int base = bucketOf(key);
+        int victim = base;
+        int victimWorth = Integer.MAX_VALUE;
+        for (int i = base; i < base + BUCKET_SIZE * 2; i += 2) {
+            long data = entries[i + 1];
+            if ((entries[i] ^ data) == key) {
+                if (depth < depth(data) && bound != EXACT && generation(data) == generation) {
+                    return;
+                }
+                if (move == Move.NONE) {
+                    move = move(data);
+                }
+                victim = i;
+                break;
+            }
+            int worth = data == 0 ? Integer.MIN_VALUE : depth(data) - 8 * age(data);
+            if (worth < victimWorth) {
+                victim = i;
+                victimWorth = worth;
+            }
+        }
+        long data = (move & 0xFFFFL) |
+                    ((long) (toStored(score, ply) & 0xFFFF) << 16) |
+                    ((long) Math.min(depth, 0xFF) << 32) |
+                    ((long) bound << 40) |
+                    ((long) generation << 42);
+        entries[victim] = key ^ data;
+        entries[victim + 1] = data;
+    }
+
+    void clear() {
+        Arrays.fill(entries, 0);
+    }
+
+    static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    /**
+     * @return the stored score, with mate scores made relative to the root again
+     */
+    static int score(long data, int ply) {
+        int score = (short) (data >>> 16);
+        if (score >= Searcher.MATE - Searcher.MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -Searcher.MATE + Searcher.MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    static int depth(long data) {
+        return (int) (data >>> 32) & 0xFF;
+    }
+
+    static int bound(long data) {
+        return (int) (data >>> 40) & 0x3;
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> 42) & (GENERATIONS - 1);
+    }
+
+    private int age(long data) {
+        return (generation - generation(data) + GENERATIONS) % GENERATIONS;
+    }
+
+    private int bucketOf(long key) {
+        return ((int) key & bucketMask) * BUCKET_SIZE * 2;
+    }
+
+    private static int toStored(int score, int ply) {
+        if (score >= Searcher.MATE - Searcher.MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -Searcher.MATE + Searcher.MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+}
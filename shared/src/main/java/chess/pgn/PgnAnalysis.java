@@ -0,0 +1,204 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.InvalidMoveException;
+import chess.Move;
+import chess.MoveList;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Replays every game of a PGN file in parallel and counts what it finds (see
+ * {@link PgnStatistics}).
+ * <p>
+ * The file is split in half, at the start of a game, and each half split again until the parts
+ * are no bigger than the chunk size; each part is then read with its own {@link PgnReader}, and
+ * the counts are merged on the way back up. The split tasks run on a {@link ForkJoinPool}, which
+ * keeps every worker busy by letting idle ones steal halves still waiting to be split. Parts are
+ * read from the file with positional reads, so the file is never held whole in memory and the
+ * workers do not share a file position. A game is taken to start at a '[' that begins a line
+ * after a blank line, as in files written by {@link PgnWriter} and by most databases.
+ */
+public final class PgnAnalysis {
+    /**
+     * How many moves from the start name a game's opening
+     */
+    public static final int OPENING_PLIES = 4;
+    public static final int DEFAULT_CHUNK_BYTES = 1 << 20;
+    private static final int SCAN_BYTES = 1 << 12;
+
+    private final ForkJoinPool pool;
+    private final int chunkBytes;
+
+    /**
+     * Analyzes on the common pool, in parts of {@link #DEFAULT_CHUNK_BYTES}
+     */
+    public PgnAnalysis() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_BYTES);
+    }
+
+    /**
+     * @param pool       the pool to run on, whose parallelism sets how many parts are read at
+     *                   once
+     * @param chunkBytes the largest part of the file one task reads
+     */
+    public PgnAnalysis(ForkJoinPool pool, int chunkBytes) {
+        if (chunkBytes < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkBytes);
+        }
+        this.pool = pool;
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * @param file a PGN file, in UTF-8 or ASCII
+     * @return counts for every game in the file
+     * @throws IOException if the file cannot be read
+     */
+    public PgnStatistics analyze(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return pool.invoke(new Part(channel, 0, channel.size()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class Part extends RecursiveTask<PgnStatistics> {
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+
+        Part(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected PgnStatistics compute() {
+            try {
+                if (end - start > chunkBytes) {
+                    long split = nextGameStart(start + (end - start) / 2);
+                    if (split < end) {
+                        var second = new Part(channel, split, end);
+                        second.fork();
+                        var first = new Part(channel, start, split).compute();
+                        return first.merge(second.join());
+                    }
+                }
+                return analyze(read());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * @return the offset of the first game to start at or after an offset, or end if none
+         * does before the end of this part
+         */
+        private long nextGameStart(long from) throws IOException {
+            var buffer = ByteBuffer.allocate(SCAN_BYTES);
+            boolean lineStart = false;
+            boolean blankLine = false;
+            long position = from;
+            while (position < end) {
+                buffer.clear().limit((int) Math.min(SCAN_BYTES, end - position));
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    return end;
+                }
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer.get(i);
+                    if (b == '[' && lineStart && blankLine) {
+                        return position + i;
+                    }
+                    if (b == '\n') {
+                        blankLine = lineStart;
+                        lineStart = true;
+                    } else if (b != '\r') {
+                        lineStart = false;
+                    }
+                }
+                position += read;
+            }
+            return end;
+        }
+
+        private String read() throws IOException {
+            var buffer = ByteBuffer.allocate((int) (end - start));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static PgnStatistics analyze(String text) throws IOException {
+        long games = 0;
+        long illegalGames = 0;
+        long plies = 0;
+        var results = new HashMap<String, Long>();
+        var openings = new HashMap<String, Long>();
+        var moves = new MoveList();
+        var opening = new StringBuilder();
+        try (var reader = new PgnReader(new StringReader(text))) {
+            while (true) {
+                PgnGame game;
+                try {
+                    game = reader.next();
+                } catch (PgnException e) {
+                    games++;
+                    illegalGames++;
+                    continue;
+                }
+                if (game == null) {
+                    break;
+                }
+                games++;
+                plies += game.game().getBoard().getMoveHistory().size();
+                results.merge(game.result(), 1L, Long::sum);
+                if (!game.tags().containsKey("FEN")) {
+                    openings.merge(opening(game.game(), moves, opening), 1L, Long::sum);
+                }
+            }
+        }
+        return new PgnStatistics(games, illegalGames, plies, Map.copyOf(results),
+                Map.copyOf(openings));
+    }
+
+    /**
+     * @return the first moves of a game from the usual start, in SAN
+     */
+    private static String opening(ChessGame game, MoveList moves, StringBuilder opening) {
+        opening.setLength(0);
+        var replay = new ChessGame();
+        var history = game.getBoard().getMoveHistory();
+        for (int i = 0; i < Math.min(OPENING_PLIES, history.size()); i++) {
+            if (i > 0) {
+                opening.append(' ');
+            }
+            var move = history.get(i);
+            San.format(replay.getBoard(), replay.getTeamTurn(), Move.fromChessMove(move), moves,
+                    opening);
+            try {
+                replay.makeMove(move);
+            } catch (InvalidMoveException e) {
+                throw new IllegalStateException("Replayed an illegal move: " + move, e);
+            }
+        }
+        return opening.toString();
+    }
+}
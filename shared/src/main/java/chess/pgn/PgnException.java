@@ -0,0 +1,16 @@
+package chess.pgn;
+
+/**
+ * Indicates a game in a PGN file could not be read, because its text is malformed or one of its
+ * moves is illegal
+ */
+public class PgnException extends Exception {
+
+    /**
+     * @param line    the line of the file the problem was found on, counting from 1
+     * @param message what is wrong
+     */
+    public PgnException(int line, String message) {
+        super("Line " + line + ": " + message);
+    }
+}
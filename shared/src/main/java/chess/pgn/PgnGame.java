@@ -0,0 +1,16 @@
+package chess.pgn;
+
+import chess.ChessGame;
+
+import java.util.Map;
+
+/**
+ * One game read from a PGN file
+ *
+ * @param tags   the tag pairs, such as "White" and "Event", in the order they were read
+ * @param game   the game with every move of the main line made, starting from the "FEN" tag's
+ *               position if there is one
+ * @param result how the movetext ends: "1-0", "0-1", "1/2-1/2" or "*"
+ */
+public record PgnGame(Map<String, String> tags, ChessGame game, String result) {
+}
@@ -0,0 +1,278 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.InvalidMoveException;
+import chess.Move;
+import chess.MoveList;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads games one at a time from PGN text, replaying each move on a {@link ChessGame} as it
+ * goes.
+ * <p>
+ * The text is read a line at a time and only the game being read is held, so a file of any
+ * size is read in constant memory. Comments, variations, move numbers and numeric annotation
+ * glyphs are skipped; only the main line is played. A game with a malformed tag or an illegal
+ * move is reported with a {@link PgnException}, after which reading carries on with the next
+ * game. A reader is not safe for use by more than one thread.
+ */
+public final class PgnReader implements Closeable {
+    private static final String[] RESULTS = {"1-0", "0-1", "1/2-1/2"};
+
+    private final BufferedReader in;
+    private final MoveList moves = new MoveList();
+    private int lineNumber;
+    private String pendingLine;
+    private boolean skipping;
+    private boolean inMovetext;
+    private boolean inComment;
+    private int variationDepth;
+
+    private Map<String, String> tags;
+    private ChessGame game;
+    private String result;
+
+    /**
+     * @param in the PGN text; buffered here, so it need not be already
+     */
+    public PgnReader(Reader in) {
+        this.in = in instanceof BufferedReader buffered ? buffered :
+                new BufferedReader(in, 1 << 16);
+    }
+
+    /**
+     * @return the next game, or null at the end of the text. A game cut off by the end of the
+     * text ends with the result "*".
+     * @throws IOException  if the text cannot be read
+     * @throws PgnException if the next game is malformed or has an illegal move; the next call
+     *                      reads the game after it
+     */
+    public PgnGame next() throws IOException, PgnException {
+        if (skipping) {
+            skipGame();
+        }
+        tags = new LinkedHashMap<>();
+        game = null;
+        result = null;
+        inComment = false;
+        variationDepth = 0;
+        inMovetext = false;
+        String line;
+        while ((line = readLine()) != null) {
+            if (line.isEmpty() || line.charAt(0) == '%') {
+                continue;
+            }
+            if (line.charAt(0) == '[' && !inComment && variationDepth == 0) {
+                if (game != null) {
+                    pendingLine = line;
+                    lineNumber--;
+                    return finish("*");
+                }
+                readTags(line);
+                continue;
+            }
+            inMovetext = true;
+            readMovetext(line);
+            if (result != null) {
+                return finish(result);
+            }
+        }
+        return game != null || !tags.isEmpty() ? finish("*") : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private String readLine() throws IOException {
+        String line = pendingLine;
+        pendingLine = null;
+        if (line == null) {
+            line = in.readLine();
+        }
+        if (line != null) {
+            lineNumber++;
+        }
+        return line;
+    }
+
+    /**
+     * Skips the rest of a game that could not be read, up to the first line of tags after its
+     * movetext
+     */
+    private void skipGame() throws IOException {
+        skipping = false;
+        String line;
+        while ((line = readLine()) != null) {
+            if (line.isEmpty() || line.charAt(0) == '%') {
+                continue;
+            }
+            if (line.charAt(0) != '[') {
+                inMovetext = true;
+            } else if (inMovetext) {
+                pendingLine = line;
+                lineNumber--;
+                return;
+            }
+        }
+    }
+
+    private PgnGame finish(String result) throws PgnException {
+        startGame();
+        return new PgnGame(tags, game, result);
+    }
+
+    private void readTags(String line) throws PgnException {
+        int i = 0;
+        while (i < line.length()) {
+            char c = line.charAt(i);
+            if (c == ' ' || c == '\t') {
+                i++;
+                continue;
+            }
+            if (c != '[') {
+                throw error("expected a tag");
+            }
+            int nameStart = ++i;
+            while (i < line.length() && line.charAt(i) > ' ' && line.charAt(i) != '"') {
+                i++;
+            }
+            var name = line.substring(nameStart, i);
+            while (i < line.length() && line.charAt(i) == ' ') {
+                i++;
+            }
+            if (name.isEmpty() || i == line.length() || line.charAt(i) != '"') {
+                throw error("malformed tag");
+            }
+            var value = new StringBuilder();
+            for (i++; i < line.length() && line.charAt(i) != '"'; i++) {
+                if (line.charAt(i) == '\\' && i + 1 < line.length()) {
+                    i++;
+                }
+                value.append(line.charAt(i));
+            }
+            int close = i + 1;
+            while (close < line.length() && line.charAt(close) == ' ') {
+                close++;
+            }
+            if (i == line.length() || close == line.length() || line.charAt(close) != ']') {
+                throw error("unterminated tag " + name);
+            }
+            tags.put(name, value.toString());
+            i = close + 1;
+        }
+    }
+
+    /**
+     * Reads the tokens of one line of movetext, stopping at the result that ends the game
+     */
+    private void readMovetext(String line) throws PgnException {
+        int i = 0;
+        int length = line.length();
+        while (i < length && result == null) {
+            char c = line.charAt(i);
+            if (inComment) {
+                int close = line.indexOf('}', i);
+                if (close < 0) {
+                    return;
+                }
+                inComment = false;
+                i = close + 1;
+            } else if (c == ' ' || c == '\t' || c == '\r') {
+                i++;
+            } else if (c == '{') {
+                inComment = true;
+                i++;
+            } else if (c == ';') {
+                return;
+            } else if (c == '(') {
+                variationDepth++;
+                i++;
+            } else if (c == ')') {
+                if (variationDepth == 0) {
+                    throw error("unmatched ')'");
+                }
+                variationDepth--;
+                i++;
+            } else {
+                int end = i + 1;
+                while (end < length && " \t\r{}();".indexOf(line.charAt(end)) < 0) {
+                    end++;
+                }
+                if (variationDepth == 0) {
+                    readToken(line, i, end);
+                }
+                i = end;
+            }
+        }
+    }
+
+    private void readToken(String line, int start, int end) throws PgnException {
+        char c = line.charAt(start);
+        if (c == '$') {
+            return;
+        }
+        if (c == '*' && end - start == 1) {
+            result = "*";
+            return;
+        }
+        if (c >= '0' && c <= '9') {
+            if (line.startsWith("0-0", start) && !line.startsWith("0-1", start)) {
+                playMove(line, start, end);
+                return;
+            }
+            for (var ending : RESULTS) {
+                if (end - start == ending.length() && line.startsWith(ending, start)) {
+                    result = ending;
+                    return;
+                }
+            }
+            while (start < end && (line.charAt(start) >= '0' && line.charAt(start) <= '9' ||
+                                   line.charAt(start) == '.')) {
+                start++;
+            }
+            if (start < end) {
+                playMove(line, start, end);
+            }
+            return;
+        }
+        if (line.startsWith("e.p.", start)) {
+            return;
+        }
+        playMove(line, start, end);
+    }
+
+    private void playMove(String line, int start, int end) throws PgnException {
+        startGame();
+        try {
+            int move = San.parse(game.getBoard(), game.getTeamTurn(), line, start, end, moves);
+            game.makeMove(Move.toChessMove(move));
+        } catch (InvalidMoveException e) {
+            throw error(e.getMessage());
+        }
+    }
+
+    private void startGame() throws PgnException {
+        if (game != null) {
+            return;
+        }
+        var fen = tags.get("FEN");
+        try {
+            game = fen == null ? new ChessGame() : ChessGame.fromFen(fen);
+        } catch (IllegalArgumentException e) {
+            throw error(e.getMessage());
+        }
+    }
+
+    private PgnException error(String message) {
+        skipping = true;
+        return new PgnException(lineNumber, message);
+    }
+}
@@ -0,0 +1,55 @@
+package chess.pgn;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What {@link PgnAnalysis} found in a PGN file
+ *
+ * @param games        games read, illegal ones included
+ * @param illegalGames games with a malformed tag or an illegal move
+ * @param plies        moves played in the legal games
+ * @param results      how many legal games ended with each result: "1-0", "0-1", "1/2-1/2" or
+ *                     "*"
+ * @param openings     how many legal games began with each opening, written as the first
+ *                     {@link PgnAnalysis#OPENING_PLIES} moves in SAN separated by spaces
+ */
+public record PgnStatistics(long games, long illegalGames, long plies, Map<String, Long> results,
+                            Map<String, Long> openings) {
+    public static final PgnStatistics EMPTY = new PgnStatistics(0, 0, 0, Map.of(), Map.of());
+
+    /**
+     * @return the statistics of both this file part and the other together
+     */
+    public PgnStatistics merge(PgnStatistics other) {
+        return new PgnStatistics(games + other.games, illegalGames + other.illegalGames,
+                plies + other.plies, sum(results, other.results), sum(openings, other.openings));
+    }
+
+    /**
+     * @param count how many to list
+     * @return the most played openings with their counts, most played first, ties in
+     * alphabetical order
+     */
+    public List<Map.Entry<String, Long>> topOpenings(int count) {
+        return openings.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(count)
+                .toList();
+    }
+
+    private static Map<String, Long> sum(Map<String, Long> a, Map<String, Long> b) {
+        if (b.isEmpty()) {
+            return a;
+        }
+        if (a.isEmpty()) {
+            return b;
+        }
+        var sum = new HashMap<>(a);
+        b.forEach((key, count) -> sum.merge(key, count, Long::sum));
+        return Map.copyOf(sum);
+    }
+}
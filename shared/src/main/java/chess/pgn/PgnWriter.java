@@ -0,0 +1,159 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.Move;
+import chess.MoveList;
+import models.GameData;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes games as PGN: the seven standard tags, any others, then the moves in SAN wrapped at 80
+ * columns and the result.
+ * <p>
+ * The moves are the game board's {@link chess.ChessBoard#getMoveHistory() move history},
+ * replayed from {@link ChessGame#getStartFen()}; a game that did not start from the usual
+ * position gets "SetUp" and "FEN" tags so readers can do the same.
+ */
+public final class PgnWriter {
+    private static final int LINE_LENGTH = 80;
+    private static final String[] SEVEN_TAGS = {"Event", "Site", "Date", "Round", "White",
+            "Black", "Result"};
+
+    private PgnWriter() {
+    }
+
+    /**
+     * Writes a stored game, with its name as the event, its players' usernames and its ID
+     *
+     * @param data the game
+     * @param out  where to write it, followed by a blank line
+     * @throws IOException if out cannot be written to
+     */
+    public static void write(GameData data, Appendable out) throws IOException {
+        var tags = new LinkedHashMap<String, String>();
+        tags.put("Event", data.gameName());
+        tags.put("White", data.whiteUsername());
+        tags.put("Black", data.blackUsername());
+        tags.put("GameID", String.valueOf(data.gameID()));
+        write(tags, data.game(), out);
+    }
+
+    /**
+     * @param tags tags to write; any of the seven standard tags missing is written as unknown,
+     *             and the "Result", "SetUp" and "FEN" tags are always taken from the game
+     * @param game the game
+     * @param out  where to write it, followed by a blank line
+     * @throws IOException if out cannot be written to
+     */
+    public static void write(Map<String, String> tags, ChessGame game, Appendable out)
+            throws IOException {
+        var result = result(game);
+        var text = new StringBuilder(1024);
+        for (var name : SEVEN_TAGS) {
+            var value = name.equals("Result") ? result : tags.get(name);
+            tag(text, name, value != null ? value : name.equals("Date") ? "????.??.??" : "?");
+        }
+        var startFen = game.getStartFen();
+        boolean setUp = !startFen.equals(ChessGame.START_FEN);
+        if (setUp) {
+            tag(text, "SetUp", "1");
+            tag(text, "FEN", startFen);
+        }
+        for (var tag : tags.entrySet()) {
+            if (!isStandard(tag.getKey()) && !tag.getKey().equals("SetUp") &&
+                !tag.getKey().equals("FEN")) {
+                tag(text, tag.getKey(), tag.getValue());
+            }
+        }
+        text.append('\n');
+        writeMoves(game, startFen, result, text);
+        out.append(text).append("\n\n");
+    }
+
+    /**
+     * @return "1-0" or "0-1" for a game won by checkmate or adjudication, "1/2-1/2" for a drawn
+     * one, and "*" for one still going or ended some other way, such as by resignation, since
+     * the game does not say who resigned
+     */
+    public static String result(ChessGame game) {
+        return switch (game.getGameState()) {
+            case CHECKMATE -> game.getTeamTurn() == ChessGame.TeamColor.WHITE ? "0-1" : "1-0";
+            case ADJUDICATED_WHITE_WIN -> "1-0";
+            case ADJUDICATED_BLACK_WIN -> "0-1";
+            case STALEMATE, INSUFFICIENT_MATERIAL, THREEFOLD_REPETITION, FIFTY_MOVE_RULE,
+                 ADJUDICATED_DRAW -> "1/2-1/2";
+            case CHECK, NONE -> "*";
+        };
+    }
+
+    private static void writeMoves(ChessGame game, String startFen, String result,
+                                   StringBuilder text) {
+        var replay = ChessGame.fromFen(startFen);
+        var moves = new MoveList();
+        var token = new StringBuilder(16);
+        int lineStart = text.length();
+        boolean first = true;
+        for (ChessMove move : game.getBoard().getMoveHistory()) {
+            token.setLength(0);
+            var turn = replay.getTeamTurn();
+            if (turn == ChessGame.TeamColor.WHITE || first) {
+                token.append(replay.getFullmoveNumber())
+                        .append(turn == ChessGame.TeamColor.WHITE ? ". " : "... ");
+            }
+            San.format(replay.getBoard(), turn, Move.fromChessMove(move), moves, token);
+            lineStart = append(text, token, lineStart);
+            first = false;
+            try {
+                replay.makeMove(move);
+            } catch (InvalidMoveException e) {
+                throw new IllegalStateException("Move history has an illegal move: " + move, e);
+            }
+        }
+        token.setLength(0);
+        append(text, token.append(result), lineStart);
+    }
+
+    /**
+     * Adds a token to the movetext, starting a new line if it would run past the line length
+     *
+     * @return where the last line now starts
+     */
+    private static int append(StringBuilder text, CharSequence token, int lineStart) {
+        if (text.length() > lineStart) {
+            if (text.length() - lineStart + 1 + token.length() > LINE_LENGTH) {
+                text.append('\n');
+                lineStart = text.length();
+            } else {
+                text.append(' ');
+            }
+        }
+        text.append(token);
+        return lineStart;
+    }
+
+    private static void tag(StringBuilder text, String name, String value) {
+        text.append('[').append(name).append(" \"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                text.append('\\');
+            }
+            text.append(c);
+        }
+        text.append("\"]\n");
+    }
+
+    private static boolean isStandard(String name) {
+        for (var standard : SEVEN_TAGS) {
+            if (standard.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
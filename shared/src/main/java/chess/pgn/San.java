@@ -0,0 +1,246 @@
+package chess.pgn;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.InvalidMoveException;
+import chess.Move;
+import chess.MoveList;
+
+/**
+ * Standard Algebraic Notation, the move format of PGN: "e4", "Nbd7", "exd5", "O-O", "e8=Q+".
+ * <p>
+ * A move is read by generating the legal moves of the position and keeping the one that fits
+ * the text, which is the only way to resolve a piece letter and a destination square to a start
+ * square. Reading works on a range of characters and fills a {@link MoveList} the caller hands
+ * in, so a reader going through many games makes no garbage per move. Besides the standard
+ * forms it accepts castling written with zeros, promotions without the '=', and trailing check,
+ * mate and annotation marks, which it ignores.
+ */
+public final class San {
+    private static final String PIECE_LETTERS = "KQBNR";
+    private static final ChessPiece.PieceType[] PIECE_TYPES = {ChessPiece.PieceType.KING,
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT,
+            ChessPiece.PieceType.ROOK};
+
+    private San() {
+    }
+
+    /**
+     * @param game the game the move is made in, by the team whose turn it is
+     * @param san  the move
+     * @return the legal move the text describes
+     * @throws InvalidMoveException if the text is not a move or not a legal one
+     */
+    public static ChessMove parse(ChessGame game, String san) throws InvalidMoveException {
+        var moves = new MoveList();
+        return Move.toChessMove(parse(game.getBoard(), game.getTeamTurn(), san, 0, san.length(),
+                moves));
+    }
+
+    /**
+     * Reads a move from part of a string
+     *
+     * @param board the board the move is made on
+     * @param turn  the team making the move
+     * @param text  holds the move
+     * @param start index of the move's first character
+     * @param end   index just past the move's last character
+     * @param moves cleared and filled with the legal moves of the position
+     * @return the legal move the text describes, as a {@link Move packed move}
+     * @throws InvalidMoveException if the text is not a move or not a legal one
+     */
+    static int parse(ChessBoard board, ChessGame.TeamColor turn, CharSequence text, int start,
+                     int end, MoveList moves) throws InvalidMoveException {
+        while (end > start && "+#!?".indexOf(text.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        moves.clear();
+        board.generateLegalMoves(turn, moves);
+        if (end > start && (text.charAt(start) == 'O' || text.charAt(start) == '0')) {
+            return castle(board, turn, text, start, end, moves);
+        }
+        var type = ChessPiece.PieceType.PAWN;
+        int letter = end > start ? PIECE_LETTERS.indexOf(text.charAt(start)) : -1;
+        if (letter >= 0) {
+            type = PIECE_TYPES[letter];
+            start++;
+        }
+        ChessPiece.PieceType promotion = null;
+        if (type == ChessPiece.PieceType.PAWN && end - start >= 3) {
+            int promotionLetter = PIECE_LETTERS.indexOf(text.charAt(end - 1));
+            if (promotionLetter > 0) {
+                promotion = PIECE_TYPES[promotionLetter];
+                end -= text.charAt(end - 2) == '=' ? 2 : 1;
+            }
+        }
+        if (end - start < 2) {
+            throw invalid(text, start, end, "too short");
+        }
+        int toFile = text.charAt(end - 2) - 'a';
+        int toRank = text.charAt(end - 1) - '1';
+        if (toFile < 0 || toFile > 7 || toRank < 0 || toRank > 7) {
+            throw invalid(text, start, end, "no destination square");
+        }
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = start; i < end - 2; i++) {
+            char c = text.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRank = c - '1';
+            } else if (c != 'x' && c != ':' && c != '-') {
+                throw invalid(text, start, end, "unexpected '" + c + "'");
+            }
+        }
+        int to = toRank * 8 + toFile;
+        int found = Move.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int from = Move.from(move);
+            if (Move.to(move) != to || board.pieceAt(from).getPieceType() != type ||
+                Move.promotion(move) != promotion || fromFile >= 0 && from % 8 != fromFile ||
+                fromRank >= 0 && from / 8 != fromRank) {
+                continue;
+            }
+            if (found != Move.NONE) {
+                throw invalid(text, start, end, "ambiguous");
+            }
+            found = move;
+        }
+        if (found == Move.NONE) {
+            throw invalid(text, start, end, "not a legal move");
+        }
+        return found;
+    }
+
+    private static int castle(ChessBoard board, ChessGame.TeamColor turn, CharSequence text,
+                              int start, int end, MoveList moves) throws InvalidMoveException {
+        int length = end - start;
+        if (length != 3 && length != 5 || !isCastlingText(text, start, end)) {
+            throw invalid(text, start, end, "not a castling move");
+        }
+        int rank = turn == ChessGame.TeamColor.WHITE ? 0 : 56;
+        int castle = Move.of(rank + 4, rank + (length == 3 ? 6 : 2));
+        var king = board.pieceAt(rank + 4);
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.get(i) == castle && king.getPieceType() == ChessPiece.PieceType.KING) {
+                return castle;
+            }
+        }
+        throw invalid(text, start, end, "not a legal move");
+    }
+
+    private static boolean isCastlingText(CharSequence text, int start, int end) {
+        char o = text.charAt(start);
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) != ((i - start) % 2 == 0 ? o : '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param game the game the move is made in, by the team whose turn it is
+     * @param move a legal move
+     * @return the move in SAN, with '+' or '#' after a check or mate
+     */
+    public static String format(ChessGame game, ChessMove move) {
+        var moves = new MoveList();
+        var san = new StringBuilder(8);
+        format(game.getBoard(), game.getTeamTurn(), Move.fromChessMove(move), moves, san);
+        return san.toString();
+    }
+
+    /**
+     * Writes a move in SAN. The board is moved and moved back to see whether the move checks or
+     * mates.
+     *
+     * @param moves scratch space, cleared and filled with the legal moves of the position
+     * @param out   where to write the move
+     */
+    static void format(ChessBoard board, ChessGame.TeamColor turn, int move, MoveList moves,
+                       StringBuilder out) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        var type = board.pieceAt(from).getPieceType();
+        if (type == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            out.append(to > from ? "O-O" : "O-O-O");
+        } else {
+            boolean capture = board.pieceAt(to) != null ||
+                              type == ChessPiece.PieceType.PAWN && to % 8 != from % 8;
+            if (type == ChessPiece.PieceType.PAWN) {
+                if (capture) {
+                    out.append((char) ('a' + from % 8));
+                }
+            } else {
+                out.append(PIECE_LETTERS.charAt(letterOf(type)));
+                disambiguate(board, turn, move, type, moves, out);
+            }
+            if (capture) {
+                out.append('x');
+            }
+            out.append((char) ('a' + to % 8)).append((char) ('1' + to / 8));
+            var promotion = Move.promotion(move);
+            if (promotion != null) {
+                out.append('=').append(PIECE_LETTERS.charAt(letterOf(promotion)));
+            }
+        }
+        var opponent = ChessGame.otherTeam(turn);
+        board.makeMove(move);
+        if (board.isInCheck(opponent)) {
+            out.append(board.hasLegalMove(opponent) ? '+' : '#');
+        }
+        board.unmakeMove();
+    }
+
+    /**
+     * Adds the start file, rank or both when another piece of the same kind could also move to
+     * the same square: the file if that tells them apart, else the rank, else both
+     */
+    private static void disambiguate(ChessBoard board, ChessGame.TeamColor turn, int move,
+                                     ChessPiece.PieceType type, MoveList moves,
+                                     StringBuilder out) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        moves.clear();
+        board.generateLegalMoves(turn, moves);
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int i = 0; i < moves.size(); i++) {
+            int other = Move.from(moves.get(i));
+            if (Move.to(moves.get(i)) != to || other == from ||
+                board.pieceAt(other).getPieceType() != type) {
+                continue;
+            }
+            ambiguous = true;
+            sameFile |= other % 8 == from % 8;
+            sameRank |= other / 8 == from / 8;
+        }
+        if (ambiguous && (!sameFile || sameRank)) {
+            out.append((char) ('a' + from % 8));
+        }
+        if (sameFile) {
+            out.append((char) ('1' + from / 8));
+        }
+    }
+
+    private static int letterOf(ChessPiece.PieceType type) {
+        for (int i = 0; i < PIECE_TYPES.length; i++) {
+            if (PIECE_TYPES[i] == type) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No letter for " + type);
+    }
+
+    private static InvalidMoveException invalid(CharSequence text, int start, int end,
+                                               String reason) {
+        return new InvalidMoveException(
+                "Bad move \"" + text.subSequence(start, end) + "\": " + reason);
+    }
+}
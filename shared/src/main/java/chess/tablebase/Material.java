@@ -0,0 +1,178 @@
+package chess.tablebase;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.util.ArrayList;
+
+/**
+ * The pieces a table covers, and how its positions are numbered.
+ * <p>
+ * A table is named by its signature, the white pieces then the black pieces separated by "v",
+ * each side written king first and then queens, rooks, bishops and knights: "KRvK", "KQvKN". A
+ * position's index is the side to move (0 for White) followed by the square of every piece in
+ * signature order, as digits in base 64, so a table of n pieces has 2 * 64^n positions.
+ */
+final class Material {
+    static final int MAX_PIECES = 4;
+    private static final String ORDER = "KQRBN";
+    private static final ChessPiece.PieceType[] TYPES = {ChessPiece.PieceType.KING,
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.KNIGHT};
+
+    private final String signature;
+    private final ChessPiece[] pieces;
+
+    private Material(String signature, ChessPiece[] pieces) {
+        this.signature = signature;
+        this.pieces = pieces;
+    }
+
+    /**
+     * @param signature a signature, with each side's pieces in any order
+     * @return the material, with the signature in its usual order
+     * @throws IllegalArgumentException if the signature is malformed, has pawns or has more than
+     *                                  {@link #MAX_PIECES} pieces
+     */
+    static Material parse(String signature) {
+        var sides = signature.toUpperCase().split("V", -1);
+        if (sides.length != 2) {
+            throw new IllegalArgumentException("Not a material signature: " + signature);
+        }
+        var pieces = new ArrayList<ChessPiece>();
+        var normalized = new StringBuilder();
+        for (var color : ChessGame.TeamColor.values()) {
+            var side = sides[color.ordinal()];
+            if (side.chars().filter(c -> c == 'K').count() != 1) {
+                throw new IllegalArgumentException("Each side needs one king: " + signature);
+            }
+            for (int i = 0; i < side.length(); i++) {
+                if (ORDER.indexOf(side.charAt(i)) < 0) {
+                    throw new IllegalArgumentException(
+                            "Unsupported piece '" + side.charAt(i) + "' in " + signature);
+                }
+            }
+            for (int type = 0; type < TYPES.length; type++) {
+                for (int i = 0; i < side.length(); i++) {
+                    if (side.charAt(i) == ORDER.charAt(type)) {
+                        pieces.add(ChessPiece.of(color, TYPES[type]));
+                        normalized.append(ORDER.charAt(type));
+                    }
+                }
+            }
+            if (color == ChessGame.TeamColor.WHITE) {
+                normalized.append('v');
+            }
+        }
+        if (pieces.size() > MAX_PIECES) {
+            throw new IllegalArgumentException("Too many pieces: " + signature);
+        }
+        return new Material(normalized.toString(), pieces.toArray(new ChessPiece[0]));
+    }
+
+    /**
+     * Reads the material of a board, optionally with the colors swapped and the board flipped
+     * top to bottom, so that Black's pieces are described as White's
+     *
+     * @param board   the board to read
+     * @param flipped whether to swap colors
+     * @param squares filled in with the square of each piece in signature order
+     * @return the board's material, or null if it has pawns or too many pieces
+     */
+    static Material of(ChessBoard board, boolean flipped, int[] squares) {
+        if (board.getPieceCount(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN) +
+            board.getPieceCount(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN) > 0) {
+            return null;
+        }
+        var pieces = new ArrayList<ChessPiece>();
+        var signature = new StringBuilder();
+        for (var color : ChessGame.TeamColor.values()) {
+            var actual = flipped ? ChessGame.otherTeam(color) : color;
+            for (int type = 0; type < TYPES.length; type++) {
+                var piece = ChessPiece.of(actual, TYPES[type]);
+                for (int square = 0; square < 64; square++) {
+                    if (piece.equals(board.pieceAt(square))) {
+                        if (pieces.size() == MAX_PIECES) {
+                            return null;
+                        }
+                        squares[pieces.size()] = flipped ? square ^ 56 : square;
+                        pieces.add(ChessPiece.of(color, TYPES[type]));
+                        signature.append(ORDER.charAt(type));
+                    }
+                }
+            }
+            if (color == ChessGame.TeamColor.WHITE) {
+                signature.append('v');
+            }
+        }
+        return new Material(signature.toString(), pieces.toArray(new ChessPiece[0]));
+    }
+
+    String signature() {
+        return signature;
+    }
+
+    int size() {
+        return pieces.length;
+    }
+
+    ChessPiece piece(int slot) {
+        return pieces[slot];
+    }
+
+    /**
+     * @return the material left when the piece in the given slot is captured
+     */
+    Material without(int slot) {
+        var remaining = new ChessPiece[pieces.length - 1];
+        var signature = new StringBuilder();
+        for (int i = 0, j = 0; i < pieces.length; i++) {
+            if (i > 0 && pieces[i].getTeamColor() != pieces[i - 1].getTeamColor()) {
+                signature.append('v');
+            }
+            if (i != slot) {
+                remaining[j++] = pieces[i];
+                signature.append(ORDER.charAt(orderOf(pieces[i].getPieceType())));
+            }
+        }
+        return new Material(signature.toString(), remaining);
+    }
+
+    /**
+     * @return number of positions in the table
+     */
+    int positions() {
+        return 2 << (6 * pieces.length);
+    }
+
+    int index(ChessGame.TeamColor sideToMove, int[] squares) {
+        int index = sideToMove.ordinal();
+        for (int i = 0; i < pieces.length; i++) {
+            index = index * 64 + squares[i];
+        }
+        return index;
+    }
+
+    /**
+     * Fills in the squares of a position from its index
+     *
+     * @return the side to move
+     */
+    ChessGame.TeamColor decode(int index, int[] squares) {
+        for (int i = pieces.length - 1; i >= 0; i--) {
+            squares[i] = index & 63;
+            index >>>= 6;
+        }
+        return ChessGame.TeamColor.values()[index];
+    }
+
+    private static int orderOf(ChessPiece.PieceType type) {
+        for (int i = 0; i < TYPES.length; i++) {
+            if (TYPES[i] == type) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported piece: " + type);
+    }
+}
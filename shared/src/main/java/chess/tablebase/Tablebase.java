@@ -0,0 +1,115 @@
+package chess.tablebase;
+
+import chess.ChessGame;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Win/draw/loss and distance-to-zeroing lookups for endgames with few pieces, from table files
+ * in a directory.
+ * <p>
+ * There is one file per material signature, named after it with a ".tb" suffix (see
+ * {@link Material}), as written by {@link TablebaseGenerator}. A file is a four-byte magic number
+ * and then one byte per position: 0 for a draw, 1 to 126 for a win in that many plies to the
+ * next capture or mate, -1 to -127 for a loss in one less than minus that many plies, and 127
+ * for a position that cannot occur. Files are memory-mapped the first time a position needs
+ * them and stay mapped, so a probe reads a single byte and the operating system keeps the pages
+ * in use cached. Tables cover positions without pawns or castling rights, from either side's
+ * point of view.
+ * <p>
+ * These are this project's own tables, not Syzygy files. A tablebase may be shared by any
+ * number of threads.
+ */
+public final class Tablebase {
+    static final int MAGIC = 0x43544231;
+    static final int HEADER = 4;
+    static final byte INVALID = 127;
+    static final String SUFFIX = ".tb";
+
+    private final Path directory;
+    private final ConcurrentHashMap<String, Optional<ByteBuffer>> tables =
+            new ConcurrentHashMap<>();
+
+    /**
+     * @param directory where the table files are
+     */
+    public Tablebase(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @param game the game to look up
+     * @return the result of the game's position with best play, or null if there is no table for
+     * it
+     * @throws UncheckedIOException if a table file cannot be read
+     */
+    public TablebaseResult probe(ChessGame game) {
+        var board = game.getBoard();
+        if (board.hasCastlingRights()) {
+            return null;
+        }
+        int[] squares = new int[Material.MAX_PIECES];
+        for (boolean flipped : new boolean[]{false, true}) {
+            var material = Material.of(board, flipped, squares);
+            if (material == null) {
+                return null;
+            }
+            var table = table(material.signature());
+            if (table != null) {
+                var turn = flipped ? ChessGame.otherTeam(game.getTeamTurn()) : game.getTeamTurn();
+                return decode(table.get(HEADER + material.index(turn, squares)));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return True if there is a table for the signature, either way round
+     */
+    public boolean covers(String signature) {
+        var material = Material.parse(signature);
+        var sides = material.signature().split("v");
+        return table(material.signature()) != null || table(sides[1] + "v" + sides[0]) != null;
+    }
+
+    static TablebaseResult decode(byte value) {
+        if (value == INVALID) {
+            return null;
+        }
+        if (value == 0) {
+            return TablebaseResult.DRAW;
+        }
+        return value > 0 ? new TablebaseResult(TablebaseResult.Wdl.WIN, value) :
+                new TablebaseResult(TablebaseResult.Wdl.LOSS, -value - 1);
+    }
+
+    private ByteBuffer table(String signature) {
+        return tables.computeIfAbsent(signature, this::map).orElse(null);
+    }
+
+    private Optional<ByteBuffer> map(String signature) {
+        var path = directory.resolve(signature + SUFFIX);
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int expected = HEADER + Material.parse(signature).positions();
+            if (table.capacity() != expected || table.getInt(0) != MAGIC) {
+                throw new IOException("Not a table for " + signature + ": " + path);
+            }
+            return Optional.of(table);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package chess.tablebase;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Move;
+import chess.MoveList;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds {@link Tablebase} files by working backwards from checkmate.
+ * <p>
+ * Every position of a table is first marked as checkmate, stalemate or cannot-occur. Then each
+ * pass settles the positions one ply further from the end: a position wins if some move leads
+ * to a loss settled by the previous pass, and loses if every move leads to a win settled before
+ * this pass. A capture leaves the table, so its result is read from the smaller table for the
+ * material left, which is built first, and counts as zero plies away since captures reset the
+ * count. Positions still unsettled when a pass settles nothing are draws.
+ * <p>
+ * Each pass looks at every unsettled position, so building takes seconds for three pieces and
+ * much longer for four.
+ */
+public final class TablebaseGenerator {
+    private static final byte UNKNOWN = Byte.MIN_VALUE;
+    private static final int MAX_DISTANCE = 126;
+    /**
+     * Results of a capture for the side moving next, zero plies from the end
+     */
+    private static final int CAPTURE_WIN = 1 << 16;
+    private static final int CAPTURE_LOSS = -(1 << 16);
+
+    private final Path directory;
+    private final Map<String, byte[]> built = new HashMap<>();
+    private final ChessBoard board = new ChessBoard();
+    private final MoveList moves = new MoveList();
+
+    /**
+     * @param directory where to write table files, and to read any already there
+     */
+    public TablebaseGenerator(Path directory) {
+        this.directory = directory;
+        board.clearCastlingRights();
+    }
+
+    /**
+     * Builds the table for a signature, and the tables for every material it can be reduced to
+     * by captures, skipping tables already in the directory
+     *
+     * @param signature the pieces, such as "KRvK"
+     * @throws IOException              if a table cannot be read or written
+     * @throws IllegalArgumentException if the signature has pawns or too many pieces
+     */
+    public void generate(String signature) throws IOException {
+        values(Material.parse(signature));
+    }
+
+    private byte[] values(Material material) throws IOException {
+        var signature = material.signature();
+        var values = built.get(signature);
+        if (values != null) {
+            return values;
+        }
+        var path = directory.resolve(signature + Tablebase.SUFFIX);
+        if (Files.isRegularFile(path)) {
+            var bytes = Files.readAllBytes(path);
+            values = new byte[bytes.length - Tablebase.HEADER];
+            System.arraycopy(bytes, Tablebase.HEADER, values, 0, values.length);
+        } else {
+            var reduced = new Material[material.size()];
+            var captures = new byte[material.size()][];
+            for (int slot = 0; slot < material.size(); slot++) {
+                if (material.piece(slot).getPieceType() != ChessPiece.PieceType.KING) {
+                    reduced[slot] = material.without(slot);
+                    captures[slot] = values(reduced[slot]);
+                }
+            }
+            values = build(material, reduced, captures);
+            write(path, values);
+        }
+        built.put(signature, values);
+        return values;
+    }
+
+    /**
+     * @param reduced  the material left by capturing the piece in each slot
+     * @param captures the values of each reduced material's table
+     */
+    private byte[] build(Material material, Material[] reduced, byte[][] captures) {
+        var values = new byte[material.positions()];
+        int[] squares = new int[material.size()];
+        int[] childSquares = new int[material.size()];
+        for (int index = 0; index < values.length; index++) {
+            var turn = material.decode(index, squares);
+            values[index] = UNKNOWN;
+            if (!setUp(material, squares) || board.isInCheck(ChessGame.otherTeam(turn))) {
+                values[index] = Tablebase.INVALID;
+            } else {
+                moves.clear();
+                board.generateLegalMoves(turn, moves);
+                if (moves.isEmpty()) {
+                    values[index] = board.isInCheck(turn) ? loss(0) : 0;
+                }
+            }
+            clear(squares);
+        }
+        boolean changed = true;
+        for (int pass = 1; changed; pass++) {
+            changed = false;
+            for (int index = 0; index < values.length; index++) {
+                if (values[index] != UNKNOWN) {
+                    continue;
+                }
+                var turn = material.decode(index, squares);
+                setUp(material, squares);
+                moves.clear();
+                board.generateLegalMoves(turn, moves);
+                clear(squares);
+                int shortestLoss = Integer.MAX_VALUE;
+                int longestWin = 0;
+                boolean allWins = true;
+                for (int i = 0; i < moves.size(); i++) {
+                    int child = childValue(material, reduced, captures, values, turn,
+                            squares, childSquares, moves.get(i));
+                    int lossDistance = child == CAPTURE_LOSS ? 0 :
+                            child < 0 && child != UNKNOWN ? -child - 1 : -1;
+                    int winDistance = child == CAPTURE_WIN ? 0 :
+                            child > 0 && child != Tablebase.INVALID ? child : -1;
+                    if (lossDistance >= 0 && lossDistance < pass) {
+                        shortestLoss = Math.min(shortestLoss, lossDistance);
+                    } else if (winDistance >= 0 && winDistance < pass) {
+                        longestWin = Math.max(longestWin, winDistance);
+                    } else {
+                        allWins = false;
+                    }
+                }
+                if (shortestLoss != Integer.MAX_VALUE) {
+                    values[index] = win(shortestLoss + 1);
+                    changed = true;
+                } else if (allWins) {
+                    values[index] = loss(longestWin + 1);
+                    changed = true;
+                }
+            }
+        }
+        for (int index = 0; index < values.length; index++) {
+            if (values[index] == UNKNOWN) {
+                values[index] = 0;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @return the value of the position a move leads to, for the side moving next there, or
+     * {@link #CAPTURE_WIN} or {@link #CAPTURE_LOSS} for a capture that is not a draw
+     */
+    private int childValue(Material material, Material[] reduced, byte[][] captures,
+                           byte[] values, ChessGame.TeamColor turn, int[] squares,
+                           int[] childSquares, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int captured = -1;
+        for (int slot = 0; slot < squares.length; slot++) {
+            childSquares[slot] = squares[slot] == from ? to : squares[slot];
+            if (squares[slot] == to) {
+                captured = slot;
+            }
+        }
+        var next = ChessGame.otherTeam(turn);
+        if (captured < 0) {
+            return values[material.index(next, childSquares)];
+        }
+        var remaining = reduced[captured];
+        for (int slot = captured; slot < remaining.size(); slot++) {
+            childSquares[slot] = childSquares[slot + 1];
+        }
+        int value = captures[captured][remaining.index(next, childSquares)];
+        return value > 0 ? CAPTURE_WIN : value < 0 ? CAPTURE_LOSS : 0;
+    }
+
+    /**
+     * Places the pieces of a position on the board
+     *
+     * @return False if two pieces share a square
+     */
+    private boolean setUp(Material material, int[] squares) {
+        long occupied = 0;
+        for (int slot = 0; slot < squares.length; slot++) {
+            occupied |= 1L << squares[slot];
+        }
+        if (Long.bitCount(occupied) != squares.length) {
+            return false;
+        }
+        for (int slot = 0; slot < squares.length; slot++) {
+            board.addPiece(position(squares[slot]), material.piece(slot));
+        }
+        return true;
+    }
+
+    private void clear(int[] squares) {
+        for (int square : squares) {
+            board.removePiece(position(square));
+        }
+    }
+
+    private static ChessPosition position(int square) {
+        return ChessPosition.of(square / 8 + 1, square % 8 + 1);
+    }
+
+    private static byte win(int distance) {
+        if (distance > MAX_DISTANCE) {
+            throw new IllegalStateException("Win too long to store: " + distance);
+        }
+        return (byte) distance;
+    }
+
+    private static byte loss(int distance) {
+        if (distance > MAX_DISTANCE) {
+            throw new IllegalStateException("Loss too long to store: " + distance);
+        }
+        return (byte) (-distance - 1);
+    }
+
+    private static void write(Path path, byte[] values) throws IOException {
+        Files.createDirectories(path.getParent());
+        var temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (var out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(Tablebase.MAGIC);
+            out.write(values);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,16 @@
+package chess.tablebase;
+
+/**
+ * What a tablebase knows about a position, from the point of view of the side to move.
+ *
+ * @param wdl whether the side to move wins, draws or loses with best play
+ * @param dtz for a win or loss, the plies until the next capture or checkmate with best play
+ *            from both sides; 0 for a draw
+ */
+public record TablebaseResult(Wdl wdl, int dtz) {
+    public enum Wdl {
+        LOSS, DRAW, WIN
+    }
+
+    static final TablebaseResult DRAW = new TablebaseResult(Wdl.DRAW, 0);
+}
@@ -0,0 +1,61 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttacksTests {
+
+    @Test
+    void magicLookupsMatchRayWalks() {
+        var random = new SplittableRandom(42);
+        for (int trial = 0; trial < 2000; trial++) {
+            long occupied = random.nextLong() & random.nextLong();
+            for (int square = 0; square < 64; square++) {
+                assertEquals(rays(square, occupied, new int[][]{{0, 1}, {0, -1}, {1, 0}, {-1, 0}}),
+                        Attacks.rook(square, occupied));
+                assertEquals(rays(square, occupied, new int[][]{{1, 1}, {1, -1}, {-1, 1}, {-1, -1}}),
+                        Attacks.bishop(square, occupied));
+            }
+        }
+    }
+
+    @Test
+    void squareAttackedAgreesWithAttackSets() throws Exception {
+        var game = new ChessGame();
+        int[][] moves = {{2, 5, 4, 5}, {7, 4, 5, 4}, {4, 5, 5, 4}, {8, 4, 5, 4}, {1, 7, 3, 6},
+                {5, 4, 5, 1}, {1, 6, 2, 5}, {8, 3, 4, 7}};
+        for (int[] move : moves) {
+            game.makeMove(new ChessMove(ChessPosition.of(move[0], move[1]),
+                    ChessPosition.of(move[2], move[3]), null));
+            var board = game.getBoard();
+            for (var color : ChessGame.TeamColor.values()) {
+                long attacked = board.attacksBy(color);
+                for (int square = 0; square < 64; square++) {
+                    assertEquals((attacked & 1L << square) != 0,
+                            board.isSquareAttacked(square, color));
+                }
+            }
+        }
+    }
+
+    private static long rays(int square, long occupied, int[][] steps) {
+        long attacks = 0;
+        for (int[] step : steps) {
+            int rank = (square >>> 3) + step[0];
+            int file = (square & 7) + step[1];
+            while (rank >= 0 && rank < 8 && file >= 0 && file < 8) {
+                long bit = 1L << (rank * 8 + file);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                rank += step[0];
+                file += step[1];
+            }
+        }
+        return attacks;
+    }
+}
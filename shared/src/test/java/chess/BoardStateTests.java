@@ -0,0 +1,48 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardStateTests {
+
+    @Test
+    void kingThatReturnsHomeCannotCastle() throws Exception {
+        var game = play(new int[][]{{2, 5, 4, 5}, {7, 5, 5, 5}, {1, 7, 3, 6}, {8, 7, 6, 6},
+                {1, 6, 2, 5}, {8, 6, 7, 5}, {1, 5, 1, 6}, {8, 5, 8, 6}, {1, 6, 1, 5},
+                {8, 6, 8, 5}});
+        var whiteKing = ChessPosition.of(1, 5);
+        var castle = new ChessMove(whiteKing, ChessPosition.of(1, 7), null);
+        assertFalse(game.validMoves(whiteKing).contains(castle));
+        assertTrue(game.getBoard().getCastleCandidates(ChessGame.TeamColor.WHITE).isEmpty());
+    }
+
+    @Test
+    void legacyBoardsRestoreStateFromHistory() throws Exception {
+        var game = play(new int[][]{{2, 7, 3, 7}, {7, 8, 6, 8}, {1, 6, 2, 7}, {6, 8, 5, 8},
+                {1, 7, 3, 6}, {5, 8, 4, 8}, {1, 8, 1, 7}, {7, 7, 6, 7}, {2, 1, 4, 1},
+                {6, 7, 5, 7}, {4, 1, 5, 1}, {7, 2, 5, 2}});
+        var gson = new Gson();
+        var json = gson.toJsonTree(game).getAsJsonObject();
+        JsonObject board = json.getAsJsonObject("board");
+        board.remove("castlingRights");
+        board.remove("enPassantSquare");
+        var restored = gson.fromJson(json, ChessGame.class);
+
+        assertEquals(game.getZobristKey(), restored.getZobristKey());
+        var capture = new ChessMove(ChessPosition.of(5, 1), ChessPosition.of(6, 2), null);
+        assertTrue(restored.validMoves(ChessPosition.of(5, 1)).contains(capture));
+        assertEquals(1, restored.getBoard().getCastleCandidates(ChessGame.TeamColor.WHITE).size());
+    }
+
+    private static ChessGame play(int[][] moves) throws InvalidMoveException {
+        var game = new ChessGame();
+        for (int[] move : moves) {
+            game.makeMove(new ChessMove(ChessPosition.of(move[0], move[1]),
+                    ChessPosition.of(move[2], move[3]), null));
+        }
+        return game;
+    }
+}
@@ -0,0 +1,141 @@
+package chess;
+
+import chess.pgn.San;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChessGameCodecTests {
+
+    @Test
+    void newGameRoundTrips() {
+        var game = new ChessGame();
+        var copy = roundTrip(game);
+        assertEquals(game, copy);
+        assertEquals(ChessGame.START_FEN, copy.toFen());
+        assertEquals(game.getZobristKey(), copy.getZobristKey());
+    }
+
+    @Test
+    void playedGameKeepsEveryDetail() throws Exception {
+        var game = new ChessGame();
+        play(game, "e4 a6 Nf3 h6 e5 f5");
+        var copy = roundTrip(game);
+        assertEquals(game.toFen(), copy.toFen());
+        assertEquals(game.getZobristKey(), copy.getZobristKey());
+        assertEquals(game.getBoard().getMoveHistory(), copy.getBoard().getMoveHistory());
+        assertEquals(game.getGameState(), copy.getGameState());
+        var enPassant = new ChessMove(ChessPosition.of(5, 5), ChessPosition.of(6, 6), null);
+        assertTrue(copy.validMoves(ChessPosition.of(5, 5)).contains(enPassant));
+    }
+
+    @Test
+    void repetitionsSurvive() throws Exception {
+        var game = new ChessGame();
+        play(game, "Nf3 Nf6 Ng1 Ng8 Nf3 Nf6 Ng1");
+        var copy = roundTrip(game);
+        assertEquals(game.getBoard().repetitionCount(), copy.getBoard().repetitionCount());
+        play(copy, "Ng8");
+        assertEquals(ChessGame.GameState.THREEFOLD_REPETITION, copy.getGameState());
+    }
+
+    @Test
+    void finishedAndSetUpGamesRoundTrip() throws Exception {
+        var mated = new ChessGame();
+        play(mated, "f3 e5 g4 Qh4#");
+        var copy = roundTrip(mated);
+        assertTrue(copy.isOver());
+        assertEquals(ChessGame.GameState.CHECKMATE, copy.getGameState());
+
+        var fromFen = ChessGame.fromFen("k7/8/1K6/8/8/8/8/7R b - - 10 40");
+        play(fromFen, "Kb8");
+        copy = roundTrip(fromFen);
+        assertEquals(fromFen.getStartFen(), copy.getStartFen());
+        assertEquals(fromFen.toFen(), copy.toFen());
+
+        var setUp = new ChessGame();
+        setUp.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |Q|K| | | |
+                """));
+        assertEquals(setUp.getBoard(), roundTrip(setUp).getBoard());
+    }
+
+    @Test
+    void muchSmallerThanJson() throws Exception {
+        var game = new ChessGame();
+        play(game, "e4 e5 Nf3 Nc6 Bb5 a6 Ba4 Nf6 O-O Be7 Re1 b5 Bb3 d6 c3 O-O h3 Nb8 d4 Nbd7 " +
+                   "c4 c6 cxb5 axb5 Nc3 Bb7 Bg5 b4 Nb1 h6 Bh4 c5 dxe5 Nxe4 Bxe7 Qxe7");
+        byte[] binary = ChessGameCodec.encode(game);
+        int json = new Gson().toJson(game).length();
+        assertTrue(binary.length * 10 < json, binary.length + " bytes against " + json);
+    }
+
+    @Test
+    void statesHaveFixedCodes() throws Exception {
+        var mated = new ChessGame();
+        play(mated, "f3 e5 g4 Qh4#");
+        assertEquals(1, ChessGameCodec.encode(mated)[2]);
+        assertEquals(9, ChessGameCodec.encode(new ChessGame())[2]);
+    }
+
+    @Test
+    void quietEndgamesStaySmall() throws Exception {
+        var game = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K3 w - - 0 1");
+        for (int i = 0; i < 10; i++) {
+            play(game, i % 2 == 0 ? "Ra2 Kd8 Ra1 Ke8" : "Kd1 Kd7 Ke1 Ke8");
+        }
+        var copy = roundTrip(game);
+        assertEquals(game.getBoard().repetitionCount(), copy.getBoard().repetitionCount());
+        int size = ChessGameCodec.encode(game).length;
+        assertTrue(size < 200, size + " bytes");
+    }
+
+    @Test
+    void readsVersionOneAndRebuildsKeys() throws Exception {
+        var game = new ChessGame();
+        play(game, "Nf3 Nf6 Ng1 Ng8 Nf3 Nf6 Ng1");
+        byte[] current = ChessGameCodec.encode(game);
+        byte[] versionOne = Arrays.copyOf(current, current.length + 1);
+        versionOne[0] = 1;
+        var copy = ChessGameCodec.decode(versionOne);
+        assertEquals(game.toFen(), copy.toFen());
+        play(copy, "Ng8");
+        assertEquals(ChessGame.GameState.THREEFOLD_REPETITION, copy.getGameState());
+    }
+
+    @Test
+    void rejectsOtherVersionsAndDamage() throws Exception {
+        var game = new ChessGame();
+        play(game, "e4 e5");
+        byte[] binary = ChessGameCodec.encode(game);
+        var future = binary.clone();
+        future[0] = ChessGameCodec.VERSION + 1;
+        assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(future));
+        assertThrows(IllegalArgumentException.class,
+                () -> ChessGameCodec.decode(Arrays.copyOf(binary, binary.length - 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> ChessGameCodec.decode(Arrays.copyOf(binary, binary.length + 1)));
+        assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(new byte[0]));
+    }
+
+    private static ChessGame roundTrip(ChessGame game) {
+        return ChessGameCodec.decode(ChessGameCodec.encode(game));
+    }
+
+    private static void play(ChessGame game, String moves) throws InvalidMoveException {
+        for (var san : moves.split(" ")) {
+            game.makeMove(San.parse(game, san));
+        }
+    }
+}
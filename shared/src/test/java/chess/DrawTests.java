@@ -0,0 +1,126 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DrawTests {
+    private static final int[][] KNIGHT_SHUFFLE = {{1, 7, 3, 6}, {8, 7, 6, 6}, {3, 6, 1, 7},
+            {6, 6, 8, 7}};
+
+    @Test
+    void threefoldRepetitionEndsTheGame() throws Exception {
+        var game = new ChessGame();
+        play(game, KNIGHT_SHUFFLE);
+        assertEquals(2, game.getBoard().repetitionCount());
+        assertEquals(ChessGame.GameState.NONE, game.getGameState());
+        play(game, KNIGHT_SHUFFLE);
+        assertEquals(3, game.getBoard().repetitionCount());
+        assertEquals(ChessGame.GameState.THREEFOLD_REPETITION, game.getGameState());
+        assertTrue(game.isOver());
+    }
+
+    @Test
+    void pawnMoveResetsRepetitions() throws Exception {
+        var game = new ChessGame();
+        play(game, KNIGHT_SHUFFLE);
+        play(game, new int[][]{{2, 5, 4, 5}, {7, 5, 5, 5}});
+        assertEquals(0, game.getBoard().getHalfmoveClock());
+        play(game, KNIGHT_SHUFFLE);
+        assertEquals(4, game.getBoard().getHalfmoveClock());
+        assertEquals(2, game.getBoard().repetitionCount());
+        assertFalse(game.isOver());
+    }
+
+    @Test
+    void repetitionsSurviveSerialization() throws Exception {
+        var gson = new Gson();
+        var game = new ChessGame();
+        play(game, KNIGHT_SHUFFLE);
+        game = gson.fromJson(gson.toJson(game), ChessGame.class);
+        assertEquals(2, game.getBoard().repetitionCount());
+        play(game, KNIGHT_SHUFFLE);
+        assertEquals(ChessGame.GameState.THREEFOLD_REPETITION, game.getGameState());
+    }
+
+    @Test
+    void fiftyMoveRuleEndsTheGame() throws Exception {
+        var game = new ChessGame();
+        game.getBoard().setHalfmoveClock(99);
+        play(game, new int[][]{{1, 7, 3, 6}});
+        assertEquals(100, game.getBoard().getHalfmoveClock());
+        assertEquals(ChessGame.GameState.FIFTY_MOVE_RULE, game.getGameState());
+        assertTrue(game.isOver());
+    }
+
+    @Test
+    void unmakeRestoresClockAndHistory() throws Exception {
+        var game = new ChessGame();
+        play(game, KNIGHT_SHUFFLE);
+        var board = game.getBoard();
+        board.makeMove(Move.of(6, 21));
+        board.makeMove(Move.of(52, 36));
+        assertEquals(0, board.getHalfmoveClock());
+        board.unmakeMove();
+        board.unmakeMove();
+        assertEquals(4, board.getHalfmoveClock());
+        assertEquals(2, board.repetitionCount());
+    }
+
+    @Test
+    void capturingTheLastPawnDrawsByInsufficientMaterial() throws Exception {
+        var game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | |p| | | | | |
+                | | | | |N| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """));
+        var board = game.getBoard();
+        assertFalse(board.hasInsufficientMaterial());
+        assertEquals(100, board.getMaterial(ChessGame.TeamColor.BLACK));
+        play(game, new int[][]{{4, 5, 5, 3}});
+        assertEquals(0,
+                board.getPieceCount(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        assertEquals(320, board.getMaterial(ChessGame.TeamColor.WHITE));
+        assertEquals(ChessGame.GameState.INSUFFICIENT_MATERIAL, game.getGameState());
+        assertTrue(game.isOver());
+    }
+
+    @Test
+    void bishopsOnOneColorCannotMate() {
+        var sameColor = TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |b| | | | |
+                | | | | | | | | |
+                | | | | | |B| | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """);
+        assertTrue(sameColor.hasInsufficientMaterial());
+        var oppositeColors = new ChessBoard(sameColor);
+        oppositeColors.addPiece(ChessPosition.of(3, 6), null);
+        oppositeColors.addPiece(ChessPosition.of(3, 5),
+                ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        assertFalse(oppositeColors.hasInsufficientMaterial());
+        var knightAndBishop = new ChessBoard(sameColor);
+        knightAndBishop.addPiece(ChessPosition.of(3, 6),
+                ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        assertFalse(knightAndBishop.hasInsufficientMaterial());
+    }
+
+    private static void play(ChessGame game, int[][] moves) throws InvalidMoveException {
+        for (int[] move : moves) {
+            game.makeMove(new ChessMove(ChessPosition.of(move[0], move[1]),
+                    ChessPosition.of(move[2], move[3]), null));
+        }
+    }
+}
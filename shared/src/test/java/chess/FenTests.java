@@ -0,0 +1,127 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FenTests {
+
+    private static final String KIWIPETE =
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    void startPositionMatchesNewGame() {
+        var game = ChessGame.fromFen(Fen.START);
+        var fresh = new ChessGame();
+        assertEquals(fresh, game);
+        assertEquals(fresh.getZobristKey(), game.getZobristKey());
+        assertEquals(Fen.START, fresh.toFen());
+    }
+
+    @Test
+    void writesEveryFieldAfterMoves() throws Exception {
+        var game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1",
+                game.toFen());
+        game.makeMove(move(8, 7, 6, 6));
+        game.makeMove(move(1, 5, 2, 5));
+        assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPPKPPP/RNBQ1BNR b kq - 2 2",
+                game.toFen());
+    }
+
+    @Test
+    void roundTripsPositions() {
+        for (var fen : new String[]{KIWIPETE,
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3"}) {
+            assertEquals(fen, ChessGame.fromFen(fen).toFen());
+        }
+    }
+
+    @Test
+    void perftFromFen() {
+        assertEquals(97862, Perft.perft(ChessGame.fromFen(KIWIPETE), 3));
+        assertEquals(62379, Perft.perft(ChessGame.fromFen(
+                "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8"), 3));
+    }
+
+    @Test
+    void enPassantSquareAllowsTheCapture() {
+        var game = ChessGame.fromFen(
+                "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3");
+        assertEquals(45, game.getBoard().getEnPassantSquare());
+        var capture = new ChessMove(ChessPosition.of(5, 5), ChessPosition.of(6, 6), null);
+        assertTrue(game.validMoves(ChessPosition.of(5, 5)).contains(capture));
+    }
+
+    @Test
+    void uncapturableEnPassantSquareIsDropped() throws Exception {
+        var game = ChessGame.fromFen(
+                "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+        assertEquals(ChessBoard.NO_SQUARE, game.getBoard().getEnPassantSquare());
+
+        var played = new ChessGame();
+        played.makeMove(move(2, 5, 4, 5));
+        assertEquals(played.getZobristKey(), game.getZobristKey());
+        assertTrue(game.toFen().contains(" b KQkq - "));
+    }
+
+    @Test
+    void castlingRightsLimitCastles() {
+        var game = ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w Kq - 0 1");
+        var king = ChessPosition.of(1, 5);
+        assertTrue(game.validMoves(king).contains(new ChessMove(king, ChessPosition.of(1, 7),
+                null)));
+        assertFalse(game.validMoves(king).contains(new ChessMove(king, ChessPosition.of(1, 3),
+                null)));
+        assertEquals("r3k2r/8/8/8/8/8/8/R3K2R w Kq - 0 1", game.toFen());
+    }
+
+    @Test
+    void clocksAreOptional() {
+        var game = ChessGame.fromFen("8/8/8/4k3/8/8/4K3/4R3 b - -");
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        assertEquals(0, game.getBoard().getHalfmoveClock());
+        assertEquals(1, game.getFullmoveNumber());
+        assertEquals("8/8/8/4k3/8/8/4K3/4R3 b - - 0 1", game.toFen());
+    }
+
+    @Test
+    void finishedPositionsAreOver() {
+        var mated = ChessGame.fromFen(
+                "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3");
+        assertEquals(ChessGame.GameState.CHECKMATE, mated.getGameState());
+        assertTrue(mated.isOver());
+        var fiftyMoves = ChessGame.fromFen("8/8/8/4k3/8/8/4K3/4R3 w - - 100 80");
+        assertEquals(ChessGame.GameState.FIFTY_MOVE_RULE, fiftyMoves.getGameState());
+    }
+
+    @Test
+    void rejectsMalformedPositions() {
+        for (var fen : new String[]{"",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNRR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w QK - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e6 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - x 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 0",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 extra",
+                "rnbqqbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "P3k3/8/8/8/8/8/8/4K3 w - - 0 1",
+                "4k2R/8/8/8/8/8/8/4K3 w - - 0 1"}) {
+            assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), fen);
+        }
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(ChessPosition.of(startRow, startCol),
+                ChessPosition.of(endRow, endCol), null);
+    }
+}
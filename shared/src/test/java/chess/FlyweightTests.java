@@ -0,0 +1,47 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlyweightTests {
+
+    @Test
+    void positionsAreShared() {
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                assertSame(ChessPosition.of(row, col), ChessPosition.of(row, col));
+                assertEquals(new ChessPosition(row, col), ChessPosition.of(row, col));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> ChessPosition.of(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> ChessPosition.of(1, 9));
+    }
+
+    @Test
+    void piecesAreShared() {
+        for (var color : ChessGame.TeamColor.values()) {
+            for (var type : ChessPiece.PieceType.values()) {
+                assertSame(ChessPiece.of(color, type), ChessPiece.of(color, type));
+                assertEquals(new ChessPiece(color, type), ChessPiece.of(color, type));
+            }
+        }
+    }
+
+    @Test
+    void boardsHoldSharedPieces() {
+        var board = new ChessBoard();
+        board.addPiece(ChessPosition.of(1, 1),
+                new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        assertSame(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK),
+                board.getPiece(ChessPosition.of(1, 1)));
+
+        var gson = new Gson();
+        var game = gson.fromJson(gson.toJson(new ChessGame()), ChessGame.class);
+        assertSame(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING),
+                game.getBoard().getPiece(ChessPosition.of(8, 5)));
+        assertSame(new ChessBoard(game.getBoard()).getPiece(ChessPosition.of(2, 3)),
+                game.getBoard().getPiece(ChessPosition.of(2, 3)));
+    }
+}
@@ -0,0 +1,57 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LegalMoveCacheTests {
+
+    @Test
+    void countsHitsAndMisses() {
+        var cache = new LegalMoveCache(64);
+        var moves = new int[]{Move.of(12, 28)};
+        assertNull(cache.get(1L));
+        cache.put(1L, moves);
+        assertArrayEquals(moves, cache.get(1L));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        // small keys all land in the same segment, which holds two of the 32 entries
+        var cache = new LegalMoveCache(32);
+        cache.put(0L, new int[0]);
+        for (long key = 1; key <= 4; key++) {
+            cache.get(0L);
+            cache.put(key, new int[0]);
+        }
+        assertNotNull(cache.get(0L));
+        assertNotNull(cache.get(4L));
+        assertNull(cache.get(1L));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void sharedCacheServesTranspositions() throws Exception {
+        var game1 = new ChessGame();
+        game1.makeMove(move(1, 7, 3, 6));
+        game1.makeMove(move(8, 7, 6, 6));
+        game1.makeMove(move(1, 2, 3, 3));
+        game1.validMoves(ChessGame.TeamColor.BLACK);
+
+        long hits = LegalMoveCache.SHARED.getHits();
+        var game2 = new ChessGame();
+        game2.makeMove(move(1, 2, 3, 3));
+        game2.makeMove(move(8, 7, 6, 6));
+        game2.makeMove(move(1, 7, 3, 6));
+        assertTrue(LegalMoveCache.SHARED.getHits() > hits);
+        assertEquals(game1.validMoves(ChessGame.TeamColor.BLACK),
+                game2.validMoves(ChessGame.TeamColor.BLACK));
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol),
+                new ChessPosition(endRow, endCol), null);
+    }
+}
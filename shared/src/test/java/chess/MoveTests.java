@@ -0,0 +1,64 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveTests {
+
+    @Test
+    void packsAndUnpacksEveryMove() {
+        var promotions = new ChessPiece.PieceType[]{null, ChessPiece.PieceType.QUEEN,
+                ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.KNIGHT};
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                for (var promotion : promotions) {
+                    var chessMove = new ChessMove(ChessBoard.positionOf(from),
+                            ChessBoard.positionOf(to), promotion);
+                    int move = Move.fromChessMove(chessMove);
+                    assertEquals(move, move & Move.MASK);
+                    assertEquals(from, Move.from(move));
+                    assertEquals(to, Move.to(move));
+                    assertEquals(promotion, Move.promotion(move));
+                    assertEquals(chessMove, Move.toChessMove(move));
+                }
+            }
+        }
+    }
+
+    @Test
+    void writesCoordinateNotation() {
+        assertEquals("e2e4", Move.toString(Move.of(12, 28)));
+        assertEquals("a7a8q", Move.toString(Move.of(48, 56, ChessPiece.PieceType.QUEEN)));
+    }
+
+    @Test
+    void moveListGrowsAndTruncates() {
+        var moves = new MoveList(1);
+        for (int i = 0; i < 100; i++) {
+            moves.add(i);
+        }
+        assertEquals(100, moves.size());
+        assertEquals(99, moves.get(99));
+        moves.truncate(10);
+        assertEquals(10, moves.size());
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, moves.toArray());
+        moves.clear();
+        assertTrue(moves.isEmpty());
+    }
+
+    @Test
+    void packedMovesMatchPieceMoves() throws Exception {
+        var game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        var board = game.getBoard();
+        var moves = new MoveList();
+        board.generateLegalMoves(ChessGame.TeamColor.BLACK, moves);
+        assertEquals(20, moves.size());
+        assertEquals(game.validMoves(ChessGame.TeamColor.BLACK),
+                new HashSet<>(moves.toChessMoves()));
+    }
+}
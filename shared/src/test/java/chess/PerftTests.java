@@ -0,0 +1,146 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the move generator against published perft counts (see the Chess Programming Wiki's
+ * "Perft Results" page) and reports how fast each position was searched.
+ */
+class PerftTests {
+
+    private static final String KIWIPETE = """
+            |r| | | |k| | |r|
+            |p| |p|p|q|p|b| |
+            |b|n| | |p|n|p| |
+            | | | |P|N| | | |
+            | |p| | |P| | | |
+            | | |N| | |Q| |p|
+            |P|P|P|B|B|P|P|P|
+            |R| | | |K| | |R|
+            """;
+
+    private static final String POSITION_3 = """
+            | | | | | | | | |
+            | | |p| | | | | |
+            | | | |p| | | | |
+            |K|P| | | | | |r|
+            | |R| | | |p| |k|
+            | | | | | | | | |
+            | | | | |P| |P| |
+            | | | | | | | | |
+            """;
+
+    private static final String POSITION_4 = """
+            |r| | | |k| | |r|
+            |P|p|p|p| |p|p|p|
+            | |b| | | |n|b|N|
+            |n|P| | | | | | |
+            |B|B|P| |P| | | |
+            |q| | | | |N| | |
+            |P|p| |P| | |P|P|
+            |R| | |Q| |R|K| |
+            """;
+
+    private static final String POSITION_5 = """
+            |r|n|b|q| |k| |r|
+            |p|p| |P|b|p|p|p|
+            | | |p| | | | | |
+            | | | | | | | | |
+            | | |B| | | | | |
+            | | | | | | | | |
+            |P|P|P| |N|n|P|P|
+            |R|N|B|Q|K| | |R|
+            """;
+
+    @Test
+    void startPosition() {
+        assertPerft(new ChessGame(), "start position", 20, 400, 8902, 197281);
+    }
+
+    @Test
+    void kiwipete() {
+        assertPerft(gameFrom(KIWIPETE), "Kiwipete", 48, 2039, 97862);
+    }
+
+    @Test
+    void position3() {
+        assertPerft(gameFrom(POSITION_3), "position 3", 14, 191, 2812, 43238, 674624);
+    }
+
+    @Test
+    void position4() {
+        assertPerft(gameFrom(POSITION_4), "position 4", 6, 264, 9467, 422333);
+    }
+
+    @Test
+    void position5() {
+        assertPerft(gameFrom(POSITION_5), "position 5", 44, 1486, 62379, 2103487);
+    }
+
+    @Test
+    void divideSumsToPerft() {
+        var game = gameFrom(KIWIPETE);
+        Map<ChessMove, Long> divide = Perft.divide(game, 2);
+        assertEquals(48, divide.size());
+        assertEquals(2039, divide.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void perftLeavesBoardUntouched() {
+        var game = gameFrom(KIWIPETE);
+        var before = new ChessBoard(game.getBoard());
+        Perft.perft(game, 2);
+        assertEquals(before, game.getBoard());
+        assertEquals(48, Perft.perft(game, 1));
+    }
+
+    @Test
+    void hasLegalMoveAgreesWithGeneration() {
+        for (var text : new String[]{KIWIPETE, POSITION_3, POSITION_4, POSITION_5}) {
+            var game = gameFrom(text);
+            assertHasLegalMove(game.getBoard(), game.getTeamTurn(), 3);
+        }
+        for (var fen : new String[]{"7k/5Q2/6K1/8/8/8/8/8 b - - 0 1",
+                "6rk/5Npp/8/8/8/8/8/6K1 b - - 0 1", "k7/8/1K6/8/8/8/8/7R b - - 0 1"}) {
+            var game = ChessGame.fromFen(fen);
+            assertHasLegalMove(game.getBoard(), game.getTeamTurn(), 1);
+        }
+    }
+
+    private static void assertHasLegalMove(ChessBoard board, ChessGame.TeamColor turn,
+                                           int depth) {
+        var moves = new MoveList();
+        board.generateLegalMoves(turn, moves);
+        assertEquals(!moves.isEmpty(), board.hasLegalMove(turn), board.toString());
+        if (depth == 1) {
+            return;
+        }
+        for (int move : moves.toArray()) {
+            board.makeMove(move);
+            assertHasLegalMove(board, ChessGame.otherTeam(turn), depth - 1);
+            board.unmakeMove();
+        }
+    }
+
+    private static ChessGame gameFrom(String boardText) {
+        var game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(boardText));
+        return game;
+    }
+
+    private static void assertPerft(ChessGame game, String name, long... expected) {
+        for (int depth = 1; depth <= expected.length; depth++) {
+            long start = System.nanoTime();
+            long nodes = Perft.perft(game, depth);
+            long elapsed = System.nanoTime() - start;
+            assertEquals(expected[depth - 1], nodes, name + " perft(" + depth + ")");
+            System.out.printf("%s perft(%d) = %d in %.1f ms (%.0f nodes/s)%n", name, depth, nodes,
+                    elapsed / 1e6, nodes * 1e9 / Math.max(elapsed, 1));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PieceSquareTests {
+
+    @Test
+    void startPositionIsBalanced() {
+        var board = new ChessGame().getBoard();
+        assertEquals(ChessBoard.FULL_PHASE, board.getPhase());
+        assertEquals(board.getMidgameScore(ChessGame.TeamColor.WHITE),
+                board.getMidgameScore(ChessGame.TeamColor.BLACK));
+        assertEquals(board.getEndgameScore(ChessGame.TeamColor.WHITE),
+                board.getEndgameScore(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    void centralKnightScoresMore() {
+        var board = new ChessGame().getBoard();
+        int before = board.getMidgameScore(ChessGame.TeamColor.WHITE);
+        board.makeMove(Move.of(6, 21));
+        assertTrue(board.getMidgameScore(ChessGame.TeamColor.WHITE) > before);
+        board.unmakeMove();
+        assertEquals(before, board.getMidgameScore(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    void promotionRaisesPhase() {
+        var board = TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                |P| | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """);
+        assertEquals(0, board.getPhase());
+        board.makeMove(Move.of(48, 56, ChessPiece.PieceType.QUEEN));
+        assertEquals(4, board.getPhase());
+        assertSameScores(board);
+    }
+
+    @Test
+    void scoresFollowMovesAndUnmakes() {
+        var board = new ChessGame().getBoard();
+        var start = new ChessBoard(board);
+        var random = new Random(18);
+        var moves = new MoveList();
+        var color = ChessGame.TeamColor.WHITE;
+        int made = 0;
+        for (int ply = 0; ply < 300; ply++) {
+            moves.clear();
+            board.generateLegalMoves(color, moves);
+            if (moves.isEmpty() || (made > 0 && random.nextInt(4) == 0)) {
+                board.unmakeMove();
+                made--;
+            } else {
+                board.makeMove(moves.get(random.nextInt(moves.size())));
+                made++;
+            }
+            color = made % 2 == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            assertSameScores(board);
+        }
+        while (made-- > 0) {
+            board.unmakeMove();
+        }
+        for (var team : ChessGame.TeamColor.values()) {
+            assertEquals(start.getMidgameScore(team), board.getMidgameScore(team));
+            assertEquals(start.getEndgameScore(team), board.getEndgameScore(team));
+        }
+        assertEquals(start.getPhase(), board.getPhase());
+    }
+
+    private static void assertSameScores(ChessBoard board) {
+        var rebuilt = new ChessBoard(board);
+        rebuilt.rebuildBitboards();
+        for (var team : ChessGame.TeamColor.values()) {
+            assertEquals(rebuilt.getMidgameScore(team), board.getMidgameScore(team));
+            assertEquals(rebuilt.getEndgameScore(team), board.getEndgameScore(team));
+        }
+        assertEquals(rebuilt.getPhase(), board.getPhase());
+    }
+}
@@ -0,0 +1,45 @@
+package chess;
+
+import chess.pgn.San;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Keys from the examples in the Polyglot book format's description
+ */
+class PolyglotKeyTests {
+
+    @Test
+    void keysMatchPolyglotExamples() throws Exception {
+        var game = new ChessGame();
+        assertEquals(0x463B96181691FC9CL, PolyglotKey.of(game));
+        long[] expected = {0x823C9B50FD114196L, 0x0756B94461C50FB0L, 0x662FAFB965DB29D4L,
+                0x22A48B5A8E47FF78L, 0x652A607CA3F242C1L, 0x00FDD303C946BDD9L};
+        var moves = "e4 d5 e5 f5 Ke2 Kf7".split(" ");
+        for (int i = 0; i < moves.length; i++) {
+            game.makeMove(San.parse(game, moves[i]));
+            assertEquals(expected[i], PolyglotKey.of(game), "after " + moves[i]);
+        }
+    }
+
+    @Test
+    void enPassantAndCastlingExamples() throws Exception {
+        var game = new ChessGame();
+        for (var move : "a4 b5 h4 b4 c4".split(" ")) {
+            game.makeMove(San.parse(game, move));
+        }
+        assertEquals(0x3C8123EA7B067637L, PolyglotKey.of(game));
+        for (var move : "bxc3 Ra3".split(" ")) {
+            game.makeMove(San.parse(game, move));
+        }
+        assertEquals(0x5C3F9B829B279560L, PolyglotKey.of(game));
+    }
+
+    @Test
+    void fenGivesTheSameKey() {
+        var game = ChessGame.fromFen(
+                "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3");
+        assertEquals(0x22A48B5A8E47FF78L, PolyglotKey.of(game));
+    }
+}
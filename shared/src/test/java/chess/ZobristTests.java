@@ -0,0 +1,85 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZobristTests {
+
+    @Test
+    void transpositionsShareKey() throws Exception {
+        var game1 = new ChessGame();
+        play(game1, 1, 7, 3, 6, 8, 7, 6, 6, 1, 2, 3, 3, 8, 2, 6, 3);
+        var game2 = new ChessGame();
+        play(game2, 1, 2, 3, 3, 8, 2, 6, 3, 1, 7, 3, 6, 8, 7, 6, 6);
+        assertEquals(game1.getZobristKey(), game2.getZobristKey());
+        assertEquals(game1.hashCode(), game2.hashCode());
+    }
+
+    @Test
+    void sideToMoveChangesKey() {
+        var game = new ChessGame();
+        long whiteToMove = game.getZobristKey();
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertNotEquals(whiteToMove, game.getZobristKey());
+    }
+
+    @Test
+    void castlingRightsChangeKey() throws Exception {
+        var game = new ChessGame();
+        play(game, 1, 7, 3, 6, 8, 7, 6, 6, 1, 8, 1, 7, 8, 8, 8, 7);
+        play(game, 1, 7, 1, 8, 8, 7, 8, 8, 3, 6, 1, 7, 6, 6, 8, 7);
+        var fresh = new ChessGame();
+        assertEquals(fresh.getBoard(), game.getBoard());
+        assertNotEquals(fresh.getZobristKey(), game.getZobristKey());
+    }
+
+    @Test
+    void enPassantFileChangesKeyOnlyWhenCapturable() throws Exception {
+        var game = new ChessGame();
+        play(game, 2, 5, 4, 5);
+        var noCapture = new ChessGame();
+        noCapture.getBoard().addPiece(new ChessPosition(4, 5),
+                noCapture.getBoard().removePiece(new ChessPosition(2, 5)));
+        noCapture.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertEquals(noCapture.getZobristKey(), game.getZobristKey());
+
+        play(game, 7, 1, 6, 1, 4, 5, 5, 5, 7, 4, 5, 4);
+        long capturable = game.getZobristKey();
+        int capturableHash = game.hashCode();
+        play(game, 1, 2, 3, 3, 8, 2, 6, 3, 3, 3, 1, 2, 6, 3, 8, 2);
+        assertEquals(capturableHash, game.hashCode());
+        assertNotEquals(capturable, game.getZobristKey());
+    }
+
+    @Test
+    void unmakeRestoresKey() throws Exception {
+        var board = new ChessBoard();
+        board.resetBoard();
+        long key = board.getZobristKey();
+        board.makeMove(move(2, 5, 4, 5));
+        assertNotEquals(key, board.getZobristKey());
+        board.unmakeMove();
+        assertEquals(key, board.getZobristKey());
+    }
+
+    @Test
+    void deserializedBoardHasSameKey() throws Exception {
+        var game = new ChessGame();
+        play(game, 2, 5, 4, 5, 7, 4, 5, 4, 1, 7, 3, 6);
+        var copy = new Gson().fromJson(new Gson().toJson(game), ChessGame.class);
+        assertEquals(game.getZobristKey(), copy.getZobristKey());
+    }
+
+    private static void play(ChessGame game, int... squares) throws InvalidMoveException {
+        for (int i = 0; i < squares.length; i += 4) {
+            game.makeMove(move(squares[i], squares[i + 1], squares[i + 2], squares[i + 3]));
+        }
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol),
+                new ChessPosition(endRow, endCol), null);
+    }
+}
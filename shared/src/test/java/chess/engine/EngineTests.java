@@ -0,0 +1,156 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineTests {
+    private final Engine engine = new Engine();
+
+    @Test
+    void findsMateInOne() {
+        var game = gameFrom("""
+                | | | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |P|P|P|
+                |R| | | | | |K| |
+                """, ChessGame.TeamColor.WHITE);
+        var result = engine.search(game, SearchLimits.depth(4));
+        assertEquals(new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null),
+                result.bestMove());
+        assertTrue(result.isMate());
+        assertEquals(1, result.mateIn());
+    }
+
+    @Test
+    void capturesHangingQueen() {
+        var game = gameFrom("""
+                | | | | |k| | | |
+                |p|p| | | | | | |
+                | | | | | | | | |
+                | | | |q| | | | |
+                | | | | | | | | |
+                | | |N| | | | | |
+                | | | | | |P|P| |
+                | | | | |K| | | |
+                """, ChessGame.TeamColor.WHITE);
+        var result = engine.search(game, SearchLimits.depth(4));
+        assertEquals(new ChessMove(ChessPosition.of(3, 3), ChessPosition.of(5, 4), null),
+                result.bestMove());
+        assertTrue(result.score() > 200);
+    }
+
+    @Test
+    void respectsNodeLimit() {
+        var result = engine.search(new ChessGame(), SearchLimits.nodes(5_000));
+        assertNotNull(result.bestMove());
+        assertTrue(result.depth() >= 1);
+        assertTrue(result.nodes() <= 5_000, "searched " + result.nodes() + " nodes");
+    }
+
+    @Test
+    void respectsTimeLimit() {
+        var result = engine.search(new ChessGame(), SearchLimits.millis(100));
+        assertNotNull(result.bestMove());
+        assertTrue(result.millis() < 1_000, "searched for " + result.millis() + "ms");
+    }
+
+    @Test
+    void noMoveWhenCheckmated() throws Exception {
+        var game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 6), ChessPosition.of(3, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null));
+        game.makeMove(new ChessMove(ChessPosition.of(2, 7), ChessPosition.of(4, 7), null));
+        game.makeMove(new ChessMove(ChessPosition.of(8, 4), ChessPosition.of(4, 8), null));
+        var result = engine.search(game, SearchLimits.depth(3));
+        assertNull(result.bestMove());
+        assertEquals(-Searcher.MATE, result.score());
+    }
+
+    @Test
+    void noMoveWhenStalemated() {
+        var game = gameFrom("""
+                | | | | | | | |k|
+                | | | | | |K| | |
+                | | | | | | |Q| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.BLACK);
+        var result = engine.search(game, SearchLimits.depth(3));
+        assertNull(result.bestMove());
+        assertEquals(0, result.score());
+    }
+
+    @Test
+    void leavesGameUntouched() throws Exception {
+        var game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        var before = new ChessBoard(game.getBoard());
+        long key = game.getBoard().getZobristKey();
+        engine.search(game, SearchLimits.depth(4));
+        assertEquals(before, game.getBoard());
+        assertEquals(key, game.getBoard().getZobristKey());
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        assertEquals(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN),
+                game.getBoard().getPiece(ChessPosition.of(4, 5)));
+    }
+
+    @Test
+    void parallelSearchFindsMateInOne() {
+        var game = gameFrom("""
+                | | | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |P|P|P|
+                |R| | | | | |K| |
+                """, ChessGame.TeamColor.WHITE);
+        var result = new Engine(4).search(game, SearchLimits.depth(4));
+        assertEquals(new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null),
+                result.bestMove());
+        assertEquals(1, result.mateIn());
+        assertEquals(4, result.threads());
+    }
+
+    @Test
+    void parallelSearchCountsHelperNodes() throws Exception {
+        var parallel = new Engine(3);
+        var game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 4), ChessPosition.of(4, 4), null));
+        var before = new ChessBoard(game.getBoard());
+        var result = parallel.search(game, SearchLimits.millis(200));
+        assertNotNull(result.bestMove());
+        assertTrue(game.getBoard().validMoves(ChessGame.TeamColor.BLACK)
+                .contains(result.bestMove()));
+        assertTrue(result.nodes() > 0);
+        assertEquals(result.nodesPerSecond() / 3, result.nodesPerSecondPerThread());
+        assertEquals(before, game.getBoard());
+    }
+
+    @Test
+    void needsAThread() {
+        assertThrows(IllegalArgumentException.class, () -> new Engine(0));
+    }
+
+    private static ChessGame gameFrom(String boardText, ChessGame.TeamColor turn) {
+        var game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(boardText));
+        game.setTeamTurn(turn);
+        return game;
+    }
+}
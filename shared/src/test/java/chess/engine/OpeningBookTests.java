@@ -0,0 +1,174 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.PolyglotKey;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningBookTests {
+    private static final ChessMove E4 = move(2, 5, 4, 5);
+    private static final ChessMove D4 = move(2, 4, 4, 4);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void looksUpMovesForPosition() throws Exception {
+        var start = PolyglotKey.of(new ChessGame());
+        var book = bookOf(List.of(new OpeningBook.Entry(start, E4, 3),
+                new OpeningBook.Entry(start, D4, 1), new OpeningBook.Entry(start - 1, E4, 9),
+                new OpeningBook.Entry(-start, D4, 9)));
+        assertEquals(4, book.size());
+        var moves = book.lookup(new ChessGame());
+        assertEquals(2, moves.size());
+        assertTrue(moves.contains(new OpeningBook.Entry(start, E4, 3)));
+        assertTrue(moves.contains(new OpeningBook.Entry(start, D4, 1)));
+
+        var game = new ChessGame();
+        game.makeMove(E4);
+        assertTrue(book.lookup(game).isEmpty());
+        assertNull(book.pick(game, new SplittableRandom(1)));
+    }
+
+    @Test
+    void picksByWeight() throws Exception {
+        var start = PolyglotKey.of(new ChessGame());
+        var book = bookOf(List.of(new OpeningBook.Entry(start, E4, 3),
+                new OpeningBook.Entry(start, D4, 1),
+                new OpeningBook.Entry(start, move(2, 3, 4, 3), 0)));
+        var random = new SplittableRandom(19);
+        int e4 = 0;
+        var picked = new HashSet<ChessMove>();
+        for (int i = 0; i < 4000; i++) {
+            var move = book.pick(new ChessGame(), random);
+            picked.add(move);
+            if (move.equals(E4)) {
+                e4++;
+            }
+        }
+        assertEquals(2, picked.size());
+        assertTrue(e4 > 2700 && e4 < 3300, "e4 picked " + e4 + " times");
+    }
+
+    @Test
+    void castlingAsKingTakesRook() throws Exception {
+        var game = new ChessGame();
+        for (var move : List.of(E4, move(7, 5, 5, 5), move(1, 7, 3, 6), move(8, 2, 6, 3),
+                move(1, 6, 4, 3), move(8, 7, 6, 6))) {
+            game.makeMove(move);
+        }
+        var book = bookOf(List.of(new OpeningBook.Entry(PolyglotKey.of(game),
+                move(1, 5, 1, 8), 1)));
+        assertEquals(move(1, 5, 1, 7), book.pick(game, new SplittableRandom(2)));
+    }
+
+    @Test
+    void illegalMovesAreSkipped() throws Exception {
+        var start = PolyglotKey.of(new ChessGame());
+        var book = bookOf(List.of(new OpeningBook.Entry(start, move(2, 5, 5, 5), 5)));
+        assertTrue(book.lookup(new ChessGame()).isEmpty());
+    }
+
+    @Test
+    void movesFromEmptySquaresOrForTheOtherSideAreSkipped() throws Exception {
+        var start = PolyglotKey.of(new ChessGame());
+        var book = bookOf(List.of(new OpeningBook.Entry(start, move(4, 5, 5, 5), 5),
+                new OpeningBook.Entry(start, move(7, 5, 5, 5), 5),
+                new OpeningBook.Entry(start, E4, 1)));
+        assertEquals(List.of(new OpeningBook.Entry(start, E4, 1)),
+                book.lookup(new ChessGame()));
+        var engine = new Engine(1, 1);
+        engine.setOpeningBook(book);
+        assertEquals(E4, engine.search(new ChessGame(), SearchLimits.depth(1)).bestMove());
+    }
+
+    @Test
+    void engineTakesBookMoves() throws Exception {
+        var start = PolyglotKey.of(new ChessGame());
+        var engine = new Engine(1, 1);
+        engine.setOpeningBook(bookOf(List.of(new OpeningBook.Entry(start, D4, 1))));
+        var result = engine.search(new ChessGame(), SearchLimits.depth(3));
+        assertEquals(D4, result.bestMove());
+        assertEquals(0, result.nodes());
+
+        var game = new ChessGame();
+        game.makeMove(D4);
+        result = engine.search(game, SearchLimits.depth(2));
+        assertEquals(2, result.depth());
+        assertTrue(result.nodes() > 0);
+    }
+
+    @Test
+    void readsPolyglotBytes() throws Exception {
+        var path = directory.resolve("polyglot.bin");
+        try (var out = new DataOutputStream(Files.newOutputStream(path))) {
+            out.writeLong(0x463B96181691FC9CL);
+            out.writeShort(0x031C);
+            out.writeShort(7);
+            out.writeInt(0);
+        }
+        var book = OpeningBook.open(path);
+        assertEquals(List.of(new OpeningBook.Entry(0x463B96181691FC9CL, E4, 7)),
+                book.lookup(new ChessGame()));
+    }
+
+    @Test
+    void rejectsTruncatedFile() throws Exception {
+        var path = directory.resolve("broken.bin");
+        Files.write(path, new byte[20]);
+        assertThrows(IOException.class, () -> OpeningBook.open(path));
+    }
+
+    private OpeningBook bookOf(List<OpeningBook.Entry> entries) throws IOException {
+        var path = directory.resolve("book.bin");
+        var sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparing(OpeningBook.Entry::key, Long::compareUnsigned));
+        try (var out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path)))) {
+            for (var entry : sorted) {
+                out.writeLong(entry.key());
+                out.writeShort(encode(entry.move()));
+                out.writeShort(entry.weight());
+                out.writeInt(0);
+            }
+        }
+        return OpeningBook.open(path);
+    }
+
+    /**
+     * Encodes a move as Polyglot does, though castling stays the king's two-square move
+     */
+    private static int encode(ChessMove move) {
+        var start = move.getStartPosition();
+        var end = move.getEndPosition();
+        var promotion = move.getPromotionPiece();
+        int code = promotion == null ? 0 : switch (promotion) {
+            case KNIGHT -> 1;
+            case BISHOP -> 2;
+            case ROOK -> 3;
+            default -> 4;
+        };
+        return (end.getColumn() - 1) | (end.getRow() - 1) << 3 | (start.getColumn() - 1) << 6 |
+               (start.getRow() - 1) << 9 | code << 12;
+    }
+
+    private static ChessMove move(int fromRow, int fromColumn, int toRow, int toColumn) {
+        return new ChessMove(ChessPosition.of(fromRow, fromColumn),
+                ChessPosition.of(toRow, toColumn), null);
+    }
+}
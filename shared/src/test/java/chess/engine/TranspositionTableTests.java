@@ -0,0 +1,100 @@
+package chess.engine;
+
+import chess.Move;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranspositionTableTests {
+
+    @Test
+    void storesAndProbes() {
+        var table = new TranspositionTable(1024);
+        int move = Move.of(12, 28);
+        table.store(0x1234_5678_9ABCL, move, -250, 7, TranspositionTable.LOWER, 3);
+        long entry = table.probe(0x1234_5678_9ABCL);
+        assertEquals(move, TranspositionTable.move(entry));
+        assertEquals(-250, TranspositionTable.score(entry, 3));
+        assertEquals(7, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+    }
+
+    @Test
+    void bucketHoldsFourKeys() {
+        var table = new TranspositionTable(1024);
+        for (int i = 0; i < 4; i++) {
+            table.store(5 + i * 256L, Move.NONE, i, 1, TranspositionTable.EXACT, 0);
+        }
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, TranspositionTable.score(table.probe(5 + i * 256L), 0));
+        }
+        assertEquals(0, table.probe(5 + 4 * 256L));
+        table.clear();
+        assertEquals(0, table.probe(5));
+    }
+
+    @Test
+    void shallowerResultKeepsDeeperOneFromSameSearch() {
+        var table = new TranspositionTable(1024);
+        int move = Move.of(1, 18);
+        table.store(7, move, 40, 6, TranspositionTable.LOWER, 0);
+        table.store(7, Move.NONE, 10, 2, TranspositionTable.UPPER, 0);
+        assertEquals(6, TranspositionTable.depth(table.probe(7)));
+        table.newSearch();
+        table.store(7, Move.NONE, 10, 2, TranspositionTable.UPPER, 0);
+        long entry = table.probe(7);
+        assertEquals(2, TranspositionTable.depth(entry));
+        assertEquals(move, TranspositionTable.move(entry));
+    }
+
+    @Test
+    void fullBucketReplacesShallowestEntry() {
+        var table = new TranspositionTable(1024);
+        int[] depths = {9, 3, 7, 5};
+        for (int i = 0; i < 4; i++) {
+            table.store(5 + i * 256L, Move.NONE, 0, depths[i], TranspositionTable.EXACT, 0);
+        }
+        table.store(5 + 4 * 256L, Move.NONE, 0, 1, TranspositionTable.EXACT, 0);
+        assertEquals(0, table.probe(5 + 256L));
+        assertNotEquals(0, table.probe(5 + 4 * 256L));
+        assertNotEquals(0, table.probe(5));
+    }
+
+    @Test
+    void oldDeepEntriesAgeOut() {
+        var table = new TranspositionTable(1024);
+        table.store(5, Move.NONE, 0, 12, TranspositionTable.EXACT, 0);
+        for (int i = 1; i < 4; i++) {
+            table.store(5 + i * 256L, Move.NONE, 0, 4, TranspositionTable.EXACT, 0);
+        }
+        table.newSearch();
+        table.newSearch();
+        for (int i = 1; i < 4; i++) {
+            table.store(5 + i * 256L, Move.NONE, 0, 4, TranspositionTable.EXACT, 0);
+        }
+        table.store(5 + 4 * 256L, Move.NONE, 0, 1, TranspositionTable.EXACT, 0);
+        assertEquals(0, table.probe(5));
+    }
+
+    @Test
+    void sizedInMegabytes() {
+        assertEquals(1 << 16, TranspositionTable.ofMegabytes(1).size());
+        assertEquals(1 << 17, TranspositionTable.ofMegabytes(3).size());
+        assertThrows(IllegalArgumentException.class, () -> TranspositionTable.ofMegabytes(0));
+    }
+
+    @Test
+    void mateScoresAreRelativeToThePosition() {
+        var table = new TranspositionTable(1024);
+        table.store(9, Move.NONE, Searcher.MATE - 5, 2, TranspositionTable.EXACT, 3);
+        assertEquals(Searcher.MATE - 3, TranspositionTable.score(table.probe(9), 1));
+        table.store(9, Move.NONE, -Searcher.MATE + 5, 2, TranspositionTable.EXACT, 3);
+        assertEquals(-Searcher.MATE + 3, TranspositionTable.score(table.probe(9), 1));
+    }
+
+    @Test
+    void sizeMustBePowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(1000));
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(2));
+    }
+}
@@ -0,0 +1,86 @@
+package chess.pgn;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PgnAnalysisTests {
+
+    private static final String RUY_LOPEZ = """
+            [Event "Ruy Lopez"]
+            [Result "1/2-1/2"]
+
+            1. e4 e5 2. Nf3 Nc6 3. Bb5 a6 4. Ba4 Nf6 1/2-1/2
+
+            """;
+
+    private static final String FOOLS_MATE = """
+            [Event "Fool's mate"]
+            [Result "0-1"]
+
+            1. f3 e5 2. g4 Qh4# 0-1
+
+            """;
+
+    private static final String ILLEGAL = """
+            [Event "Illegal"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Ke3 1-0
+
+            """;
+
+    private static final String SET_UP = """
+            [Event "Endgame"]
+            [SetUp "1"]
+            [FEN "k7/8/1K6/8/8/8/8/7R b - - 0 1"]
+
+            1... Kb8 2. Rh8# 1-0
+
+            """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void countsEveryGameWhateverTheChunkSize() throws Exception {
+        var file = directory.resolve("games.pgn");
+        Files.writeString(file, (RUY_LOPEZ + FOOLS_MATE + ILLEGAL + RUY_LOPEZ + SET_UP)
+                .repeat(50));
+        var pool = new ForkJoinPool(4);
+        try {
+            for (int chunkBytes : new int[]{64, 300, 4096, 1 << 20}) {
+                var statistics = new PgnAnalysis(pool, chunkBytes).analyze(file);
+                assertEquals(250, statistics.games(), "chunk " + chunkBytes);
+                assertEquals(50, statistics.illegalGames());
+                assertEquals(50 * (8 + 4 + 8 + 2), statistics.plies());
+                assertEquals(Map.of("1/2-1/2", 100L, "0-1", 50L, "1-0", 50L),
+                        statistics.results());
+                assertEquals(List.of(Map.entry("e4 e5 Nf3 Nc6", 100L),
+                        Map.entry("f3 e5 g4 Qh4#", 50L)), statistics.topOpenings(5));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void emptyFileHasNoGames() throws Exception {
+        var file = Files.createFile(directory.resolve("empty.pgn"));
+        assertEquals(PgnStatistics.EMPTY, new PgnAnalysis().analyze(file));
+    }
+
+    @Test
+    void missingFileIsAnIOException() {
+        assertThrows(NoSuchFileException.class,
+                () -> new PgnAnalysis().analyze(directory.resolve("missing.pgn")));
+    }
+}
@@ -0,0 +1,130 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import models.GameData;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PgnTests {
+
+    private static final String OPERA_GAME = """
+            [Event "Paris"]
+            [Site "Paris FRA"]
+            [Date "1858.??.??"]
+            [Round "?"]
+            [White "Paul Morphy"]
+            [Black "Duke Karl / Count Isouard"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Nf3 d6 3. d4 Bg4 {This is a weak move already.} 4. dxe5 Bxf3
+            5. Qxf3 dxe5 6. Bc4 Nf6 7. Qb3 Qe7 8. Nc3 c6 9. Bg5 (9. Qxb7 Qb4+ 10. Qxb4
+            Bxb4) 9... b5 $2 10. Nxb5 cxb5 11. Bxb5+ Nbd7 12. O-O-O Rd8 13. Rxd7 Rxd7
+            14. Rd1 Qe6 15. Bxd7+ Nxd7 16. Qb8+ Nxb8 17. Rd8# 1-0
+            """;
+
+    @Test
+    void readsGameSkippingCommentsAndVariations() throws Exception {
+        var game = readAll(OPERA_GAME).getFirst();
+        assertEquals("Paul Morphy", game.tags().get("White"));
+        assertEquals("1-0", game.result());
+        assertEquals(33, game.game().getBoard().getMoveHistory().size());
+        assertEquals(ChessGame.GameState.CHECKMATE, game.game().getGameState());
+    }
+
+    @Test
+    void readsGamesInSequence() throws Exception {
+        var text = """
+                [Event "first"]
+
+                1. f3 e5 2. g4 Qh4# 0-1
+
+                [Event "second"]
+                [SetUp "1"]
+                [FEN "k7/8/1K6/8/8/8/8/7R b - - 10 40"]
+
+                40... Kb8 41. Rh8# 1-0
+
+                1.e4 e5 { a game with no tags, cut off }
+                """;
+        var games = readAll(text);
+        assertEquals(3, games.size());
+        assertEquals("0-1", games.get(0).result());
+        assertEquals(ChessGame.GameState.CHECKMATE, games.get(1).game().getGameState());
+        assertEquals(41, games.get(1).game().getFullmoveNumber());
+        assertEquals("*", games.get(2).result());
+        assertEquals(2, games.get(2).game().getBoard().getMoveHistory().size());
+    }
+
+    @Test
+    void carriesOnAfterABadGame() throws Exception {
+        var text = """
+                [Event "bad"]
+
+                1. e4 e5 2. Ke3 Nc6 3. Bb5 a6 1-0
+
+                [Event "good"]
+
+                1. d4 d5 1/2-1/2
+                """;
+        try (var reader = new PgnReader(new StringReader(text))) {
+            var error = assertThrows(PgnException.class, reader::next);
+            assertTrue(error.getMessage().startsWith("Line 3"), error.getMessage());
+            var good = reader.next();
+            assertEquals("good", good.tags().get("Event"));
+            assertEquals("1/2-1/2", good.result());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void writtenGamesReadBack() throws Exception {
+        var original = readAll(OPERA_GAME).getFirst();
+        var out = new StringBuilder();
+        PgnWriter.write(original.tags(), original.game(), out);
+        for (var line : out.toString().split("\n")) {
+            assertTrue(line.length() <= 80, line);
+        }
+        assertTrue(out.toString().contains("[Black \"Duke Karl / Count Isouard\"]"));
+        assertTrue(out.toString().contains("12. O-O-O Rd8"));
+        assertTrue(out.toString().contains("17. Rd8# 1-0"));
+
+        var copy = readAll(out.toString()).getFirst();
+        assertEquals(original.tags(), copy.tags());
+        assertEquals(original.game().getBoard().getMoveHistory(),
+                copy.game().getBoard().getMoveHistory());
+    }
+
+    @Test
+    void writesStoredGames() throws Exception {
+        var game = ChessGame.fromFen("4k3/8/8/8/8/8/4K3/R7 b - - 10 40");
+        game.makeMove(San.parse(game, "Kd8"));
+        var data = new GameData(7, "alice", null, "endgame \"drill\"", game);
+        var out = new StringBuilder();
+        PgnWriter.write(data, out);
+        var pgn = out.toString();
+        assertTrue(pgn.contains("[Event \"endgame \\\"drill\\\"\"]"), pgn);
+        assertTrue(pgn.contains("[Black \"?\"]"), pgn);
+        assertTrue(pgn.contains("[Result \"*\"]"), pgn);
+        assertTrue(pgn.contains("[FEN \"4k3/8/8/8/8/8/4K3/R7 b - - 10 40\"]"), pgn);
+        assertTrue(pgn.contains("\n40... Kd8 *"), pgn);
+
+        var copy = readAll(pgn).getFirst();
+        assertEquals("endgame \"drill\"", copy.tags().get("Event"));
+        assertEquals("alice", copy.tags().get("White"));
+        assertEquals(game.toFen(), copy.game().toFen());
+    }
+
+    private static ArrayList<PgnGame> readAll(String text) throws Exception {
+        var games = new ArrayList<PgnGame>();
+        try (var reader = new PgnReader(new StringReader(text))) {
+            for (var game = reader.next(); game != null; game = reader.next()) {
+                games.add(game);
+            }
+        }
+        return games;
+    }
+}
@@ -0,0 +1,78 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SanTests {
+
+    @Test
+    void readsPawnAndPieceMoves() throws Exception {
+        var game = new ChessGame();
+        assertEquals(move(2, 5, 4, 5), San.parse(game, "e4"));
+        assertEquals(move(1, 7, 3, 6), San.parse(game, "Nf3"));
+        assertEquals(move(1, 7, 3, 6), San.parse(game, "Ng1f3!?"));
+    }
+
+    @Test
+    void readsCastlingInEitherSpelling() throws Exception {
+        var game = ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        assertEquals(move(1, 5, 1, 7), San.parse(game, "O-O"));
+        assertEquals(move(1, 5, 1, 3), San.parse(game, "0-0-0+"));
+        assertThrows(InvalidMoveException.class, () -> San.parse(game, "O-O-O-O"));
+    }
+
+    @Test
+    void readsPromotionsAndEnPassant() throws Exception {
+        var game = ChessGame.fromFen("4k3/1P6/8/3pP3/8/8/8/4K3 w - d6 0 1");
+        var queen = new ChessMove(ChessPosition.of(7, 2), ChessPosition.of(8, 2),
+                ChessPiece.PieceType.QUEEN);
+        assertEquals(queen, San.parse(game, "b8=Q+"));
+        assertEquals(queen, San.parse(game, "b8Q"));
+        assertEquals(move(5, 5, 6, 4), San.parse(game, "exd6"));
+        assertThrows(InvalidMoveException.class, () -> San.parse(game, "b8"));
+    }
+
+    @Test
+    void rejectsAmbiguousAndIllegalMoves() {
+        var game = ChessGame.fromFen("4k3/8/8/8/8/8/4K3/R6R w - - 0 1");
+        assertThrows(InvalidMoveException.class, () -> San.parse(game, "Rd1"));
+        assertThrows(InvalidMoveException.class, () -> San.parse(game, "Nf3"));
+        assertThrows(InvalidMoveException.class, () -> San.parse(game, "Rz9"));
+        assertThrows(InvalidMoveException.class, () -> San.parse(game, ""));
+    }
+
+    @Test
+    void writesDisambiguation() {
+        var rooks = ChessGame.fromFen("4k3/8/8/8/8/8/4K3/R6R w - - 0 1");
+        assertEquals("Rad1", San.format(rooks, move(1, 1, 1, 4)));
+        var stacked = ChessGame.fromFen("4k3/8/R7/8/8/8/8/R3K3 w - - 0 1");
+        assertEquals("R1a3", San.format(stacked, move(1, 1, 3, 1)));
+        var queens = ChessGame.fromFen("2k5/8/8/8/4Q2Q/8/8/K6Q w - - 0 1");
+        assertEquals("Qh4e1", San.format(queens, move(4, 8, 1, 5)));
+    }
+
+    @Test
+    void writesCapturesChecksAndMates() throws Exception {
+        var game = new ChessGame();
+        for (var san : new String[]{"f3", "e5", "g4"}) {
+            game.makeMove(San.parse(game, san));
+        }
+        assertEquals("Qh4#", San.format(game, move(8, 4, 4, 8)));
+        var capture = ChessGame.fromFen("4k3/8/8/3p4/4P3/8/8/4K2R w K - 0 1");
+        assertEquals("exd5", San.format(capture, move(4, 5, 5, 4)));
+        assertEquals("O-O", San.format(capture, move(1, 5, 1, 7)));
+        var check = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K3 w - - 0 1");
+        assertEquals("Ra8+", San.format(check, move(1, 1, 8, 1)));
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(ChessPosition.of(startRow, startCol),
+                ChessPosition.of(endRow, endCol), null);
+    }
+}
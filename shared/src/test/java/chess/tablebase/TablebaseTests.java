@@ -0,0 +1,140 @@
+package chess.tablebase;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import passoff.chess.TestUtilities;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TablebaseTests {
+    @TempDir
+    static Path directory;
+    private static Tablebase tablebase;
+
+    @BeforeAll
+    static void generate() throws Exception {
+        new TablebaseGenerator(directory).generate("KQvK");
+        tablebase = new Tablebase(directory);
+    }
+
+    @Test
+    void writesTablesForCaptures() {
+        assertTrue(Files.isRegularFile(directory.resolve("KQvK.tb")));
+        assertTrue(Files.isRegularFile(directory.resolve("KvK.tb")));
+        assertTrue(tablebase.covers("KvKQ"));
+        assertFalse(tablebase.covers("KRvK"));
+    }
+
+    @Test
+    void findsMateInOne() {
+        var game = gameFrom("""
+                | | | | | | | |k|
+                |Q| | | | | | | |
+                | | | | | | |K| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        assertEquals(new TablebaseResult(TablebaseResult.Wdl.WIN, 1), tablebase.probe(game));
+    }
+
+    @Test
+    void checkmatedSideHasLost() throws Exception {
+        var game = gameFrom("""
+                | | | | | | | |k|
+                |Q| | | | | | | |
+                | | | | | | |K| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        game.makeMove(new ChessMove(ChessPosition.of(7, 1), ChessPosition.of(7, 7), null));
+        assertEquals(new TablebaseResult(TablebaseResult.Wdl.LOSS, 0), tablebase.probe(game));
+    }
+
+    @Test
+    void hangingQueenIsDraw() {
+        var game = gameFrom("""
+                | | | | |k| | | |
+                | | | | |Q| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |K| | | | | | | |
+                """, ChessGame.TeamColor.BLACK);
+        assertEquals(new TablebaseResult(TablebaseResult.Wdl.DRAW, 0), tablebase.probe(game));
+    }
+
+    @Test
+    void probesWithColorsSwapped() {
+        var game = gameFrom("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | |k| |
+                |q| | | | | | | |
+                | | | | | | | |K|
+                """, ChessGame.TeamColor.BLACK);
+        assertEquals(new TablebaseResult(TablebaseResult.Wdl.WIN, 1), tablebase.probe(game));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        assertEquals(new TablebaseResult(TablebaseResult.Wdl.LOSS, 2), tablebase.probe(game));
+    }
+
+    @Test
+    void longestWinIsTenMoves() throws Exception {
+        var table = Files.readAllBytes(directory.resolve("KQvK.tb"));
+        int longest = 0;
+        for (int i = Tablebase.HEADER; i < table.length; i++) {
+            if (table[i] != Tablebase.INVALID) {
+                longest = Math.max(longest, table[i]);
+            }
+        }
+        assertEquals(19, longest);
+    }
+
+    @Test
+    void positionsWithoutTablesAreNotProbed() {
+        assertNull(tablebase.probe(gameFrom("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |P| | | |
+                |R| | | |K| | | |
+                """, ChessGame.TeamColor.WHITE)));
+        assertNull(tablebase.probe(new ChessGame()));
+    }
+
+    @Test
+    void rejectsUnsupportedMaterial() {
+        var generator = new TablebaseGenerator(directory);
+        assertThrows(IllegalArgumentException.class, () -> generator.generate("KPvK"));
+        assertThrows(IllegalArgumentException.class, () -> generator.generate("KQQRvK"));
+        assertThrows(IllegalArgumentException.class, () -> generator.generate("KQK"));
+    }
+
+    private static ChessGame gameFrom(String boardText, ChessGame.TeamColor turn) {
+        var game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(boardText));
+        game.getBoard().clearCastlingRights();
+        game.setTeamTurn(turn);
+        return game;
+    }
+}